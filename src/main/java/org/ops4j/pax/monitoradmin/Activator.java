@@ -16,6 +16,8 @@
 
 package org.ops4j.pax.monitoradmin;
 
+import org.ops4j.pax.monitoradmin.api.BatchMonitorListener;
+import org.ops4j.pax.monitoradmin.api.ExtendedMonitorAdmin;
 import org.ops4j.pax.monitoradmin.util.Utils;
 import org.osgi.framework.*;
 import org.osgi.service.event.Event;
@@ -71,6 +73,14 @@ public class Activator implements BundleActivator, OsgiVisitor, LogVisitor {
      * LogService service tracker
      */
     private ServiceTracker logServiceTracker;
+    /**
+     * Monitorable service tracker
+     */
+    private MonitorableTracker monitorableTracker;
+    /**
+     * Permission decisions cache invalidator, <code>null</code> - decisions are not cached
+     */
+    private PermissionCacheInvalidator permissionCacheInvalidator;
 
 
     public void start(BundleContext bundleContext) throws Exception {
@@ -84,15 +94,27 @@ public class Activator implements BundleActivator, OsgiVisitor, LogVisitor {
         eventAdminTracker = new ServiceTracker(bc, EventAdmin.class.getName(), null);
         eventAdminTracker.open();
 
+        // init Monitorable tracker
+        monitorableTracker = new MonitorableTracker(bc);
+        monitorableTracker.open();
+
         // init commons
-        common = new MonitorAdminCommon(this, this);
+        MonitorAdminConfiguration configuration = MonitorAdminConfiguration.load(bc, this);
+        common = new MonitorAdminCommon(this, this, configuration);
+        monitorableTracker.setDepartureListener(common);
+        if (common.getPermissionCache() != null) {
+            permissionCacheInvalidator = new PermissionCacheInvalidator(bc, common.getPermissionCache());
+            permissionCacheInvalidator.open();
+        }
         // init factory
-        monitorAdminFactory = new MonitorAdminFactory(this, common);
+        monitorAdminFactory = new MonitorAdminFactory(this, common, configuration.getSecurityMode());
 
         // register MonitorAdmin ServiceFactory
-        monitorAdminRegistration = bundleContext.registerService(MonitorAdmin.class.getName(), monitorAdminFactory, null);
+        monitorAdminRegistration = bundleContext.registerService(new String[]{MonitorAdmin.class.getName(),
+                ExtendedMonitorAdmin.class.getName()}, monitorAdminFactory, null);
         // register MonitorListener
-        monitorListenerRegistration = bundleContext.registerService(MonitorListener.class.getName(), common, null);
+        monitorListenerRegistration = bundleContext.registerService(new String[]{MonitorListener.class.getName(),
+                BatchMonitorListener.class.getName()}, common, null);
 
         info("MonitorAdmin started", null);
     }
@@ -110,12 +132,24 @@ public class Activator implements BundleActivator, OsgiVisitor, LogVisitor {
             monitorListenerRegistration = null;
         }
 
+        if (permissionCacheInvalidator != null) {
+            permissionCacheInvalidator.close();
+            permissionCacheInvalidator = null;
+        }
+
         if (common != null) {
+            monitorableTracker.setDepartureListener(null);
             // cancel started jobs
-            common.cancelAllJobs();
+            common.shutdown();
+            common = null;
             monitorAdminFactory = null;
         }
 
+        if (monitorableTracker != null) {
+            monitorableTracker.close();
+            monitorableTracker = null;
+        }
+
         if (eventAdminTracker != null) {
             eventAdminTracker.close();
             eventAdminTracker = null;
@@ -192,7 +226,7 @@ public class Activator implements BundleActivator, OsgiVisitor, LogVisitor {
     }
 
     public Monitorable getService(ServiceReference reference) {
-        return (Monitorable) bc.getService(reference);
+        return monitorableTracker.getMonitorable(reference);
     }
 
     public ServiceReference[] findMonitorableReferences(String monitorableId) {
@@ -208,6 +242,10 @@ public class Activator implements BundleActivator, OsgiVisitor, LogVisitor {
         }
     }
 
+    public ServiceReference findMonitorableReference(String monitorableId) {
+        return monitorableTracker.findReference(monitorableId);
+    }
+
     public void postEvent(Event event) {
         EventAdmin eventAdmin = (EventAdmin) eventAdminTracker.getService();
         if (eventAdmin != null) {
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.ops4j.pax.monitoradmin.api.CircuitState;
+import org.ops4j.pax.monitoradmin.api.MonitorableHealth;
+import org.ops4j.pax.monitoradmin.api.MonitorableUnavailableException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-<code>Monitorable</code> circuit breakers. Every breaker tracks exponentially weighted averages of
+ * read latency and error rate. Breaker is opened when either average exceeds its threshold: calls to the
+ * <code>Monitorable</code> are rejected until the open period is over. Then one trial call is passed,
+ * breaker is closed if the trial is fast and successful, otherwise it is opened again.
+ * <p/>
+ * Calls in progress are tracked: while a call runs longer than the latency threshold the breaker is
+ * opened and new calls are rejected, so a hung <code>Monitorable</code> does not pin more threads.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class CircuitBreakers {
+    /**
+     * Weight of the latest call in averages
+     */
+    private static final double ALPHA = 0.2;
+    /**
+     * Number of calls that are recorded before breaker can be opened
+     */
+    private static final int MIN_CALLS = 10;
+
+    private final LogVisitor logVisitor;
+    private final double errorRateThreshold;
+    private final long latencyThreshold;
+    private final long openPeriod;
+    /**
+     * Monitorable Id to breaker index
+     */
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<String, Breaker>();
+
+    /**
+     * Initialize breakers
+     *
+     * @param logVisitor         log visitor
+     * @param errorRateThreshold error rate that opens breaker, from <code>0</code> to <code>1</code>
+     * @param latencyThreshold   average latency that opens breaker in nanoseconds
+     * @param openPeriod         time before trial call in nanoseconds
+     */
+    public CircuitBreakers(LogVisitor logVisitor, double errorRateThreshold, long latencyThreshold, long openPeriod) {
+        this.logVisitor = logVisitor;
+        this.errorRateThreshold = errorRateThreshold;
+        this.latencyThreshold = latencyThreshold;
+        this.openPeriod = openPeriod;
+    }
+
+    /**
+     * Acquire permission to call <code>Monitorable</code>. Result of the call should be recorded
+     * with {@link Call#record(long, boolean)}
+     *
+     * @param monitorableId monitorable Id
+     * @return call of <code>Monitorable</code>
+     * @throws MonitorableUnavailableException breaker is open or earlier call is hung
+     */
+    public Call acquire(String monitorableId) throws MonitorableUnavailableException {
+        Breaker breaker = breakers.get(monitorableId);
+        if (breaker == null) {
+            synchronized (breakers) {
+                breaker = breakers.get(monitorableId);
+                if (breaker == null) {
+                    breaker = new Breaker(monitorableId);
+                    breakers.put(monitorableId, breaker);
+                }
+            }
+        }
+        Call call = breaker.begin();
+        if (call == null) {
+            throw new MonitorableUnavailableException("Monitorable is unavailable: " + monitorableId);
+        }
+        return call;
+    }
+
+    /**
+     * Get health of <code>Monitorable</code>
+     *
+     * @param monitorableId monitorable Id
+     * @return health or <code>null</code> if <code>Monitorable</code> was not called
+     */
+    public MonitorableHealth getHealth(String monitorableId) {
+        Breaker breaker = breakers.get(monitorableId);
+        return breaker != null ? breaker.getHealth() : null;
+    }
+
+    /**
+     * Get health of all called <code>Monitorable</code>s
+     *
+     * @return health snapshots
+     */
+    public MonitorableHealth[] getHealth() {
+        List<MonitorableHealth> result = new ArrayList<MonitorableHealth>();
+        for (Breaker breaker : breakers.values()) {
+            result.add(breaker.getHealth());
+        }
+        return result.toArray(new MonitorableHealth[result.size()]);
+    }
+
+    /**
+     * Drop breaker of departed <code>Monitorable</code>
+     *
+     * @param monitorableId monitorable Id
+     */
+    public void remove(String monitorableId) {
+        breakers.remove(monitorableId);
+    }
+
+    /**
+     * <code>Monitorable</code> call in progress
+     */
+    public static class Call {
+        private final Breaker breaker;
+        // System.nanoTime() of the call start
+        private final long start;
+        private final boolean trial;
+
+        private Call(Breaker breaker, long start, boolean trial) {
+            this.breaker = breaker;
+            this.start = start;
+            this.trial = trial;
+        }
+
+        /**
+         * Record the result of <code>Monitorable</code> call
+         *
+         * @param latency call duration in nanoseconds
+         * @param failed  <code>true</code> - <code>Monitorable</code> failed
+         */
+        public void record(long latency, boolean failed) {
+            breaker.record(this, latency, failed);
+        }
+    }
+
+    /**
+     * Circuit breaker of one <code>Monitorable</code>. Calls are started and recorded under the breaker lock
+     */
+    private class Breaker {
+        private final String monitorableId;
+        private final Set<Call> calls = new HashSet<Call>();
+        private CircuitState state = CircuitState.CLOSED;
+        private double averageLatency;
+        private double errorRate;
+        private int recordedCalls;
+        // System.nanoTime() of the breaker opening
+        private long openedAt;
+        private boolean trialInProgress;
+
+        private Breaker(String monitorableId) {
+            this.monitorableId = monitorableId;
+        }
+
+        /**
+         * Start call if breaker is closed, or open period is over and there is no other trial in progress.
+         * Breaker is opened if earlier call runs longer than the latency threshold
+         *
+         * @return call or <code>null</code> if call is rejected
+         */
+        private synchronized Call begin() {
+            long now = System.nanoTime();
+            if (state == CircuitState.CLOSED) {
+                if (!isHung(now)) {
+                    return start(now, false);
+                }
+                open("call is hung");
+                return null;
+            }
+            if (trialInProgress || now - openedAt < openPeriod || isHung(now)) {
+                return null;
+            }
+            trialInProgress = true;
+            state = CircuitState.HALF_OPEN;
+            return start(now, true);
+        }
+
+        private Call start(long now, boolean trial) {
+            Call call = new Call(this, now, trial);
+            calls.add(call);
+            return call;
+        }
+
+        private boolean isHung(long now) {
+            for (Call call : calls) {
+                if (now - call.start >= latencyThreshold) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized void record(Call call, long latency, boolean failed) {
+            if (!calls.remove(call)) {
+                // call is already recorded
+                return;
+            }
+            if (call.trial) {
+                trialInProgress = false;
+                if (failed || latency >= latencyThreshold) {
+                    open(String.format("trial latency %d ns, failed %b", latency, failed));
+                } else {
+                    recordedCalls = 0;
+                    averageLatency = latency;
+                    errorRate = 0;
+                    state = CircuitState.CLOSED;
+                    logVisitor.info("Monitorable is recovered: " + monitorableId, null);
+                }
+                return;
+            }
+            if (recordedCalls == 0) {
+                averageLatency = latency;
+                errorRate = failed ? 1 : 0;
+            } else {
+                averageLatency += ALPHA * (latency - averageLatency);
+                errorRate += ALPHA * ((failed ? 1 : 0) - errorRate);
+            }
+            if (recordedCalls < MIN_CALLS) {
+                recordedCalls++;
+            }
+            if (state == CircuitState.CLOSED && recordedCalls >= MIN_CALLS
+                    && (errorRate >= errorRateThreshold || averageLatency >= latencyThreshold)) {
+                open(String.format("average latency %d ns, error rate %.2f", (long) averageLatency, errorRate));
+            }
+        }
+
+        private void open(String reason) {
+            openedAt = System.nanoTime();
+            state = CircuitState.OPEN;
+            logVisitor.warning("Monitorable is unavailable: " + monitorableId + ", " + reason, null);
+        }
+
+        private synchronized MonitorableHealth getHealth() {
+            CircuitState currentState = state;
+            long now = System.nanoTime();
+            if (currentState == CircuitState.OPEN && now - openedAt >= openPeriod && !trialInProgress && !isHung(now)) {
+                // next call is a trial
+                currentState = CircuitState.HALF_OPEN;
+            }
+            return new MonitorableHealth(monitorableId, currentState, (long) averageLatency, errorRate);
+        }
+    }
+}
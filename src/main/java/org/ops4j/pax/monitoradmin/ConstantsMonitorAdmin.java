@@ -42,4 +42,122 @@ public interface ConstantsMonitorAdmin {
      * Initiator
      */
     public final static String MON_LISTENER_ID = "mon.listener.id";
+    /**
+     * <code>StatusVariable</code> timestamp in milliseconds, is posted in typed events mode only
+     */
+    public final static String MON_STATUSVARIABLE_TIMESTAMP = "mon.statusvariable.timestamp";
+    /**
+     * Scheduled job batch events topic
+     */
+    public final static String BATCH_TOPIC = "org/ops4j/pax/monitoradmin/batch";
+    /**
+     * Batch event <code>Monitorable</code> IDs, <code>String[]</code>
+     */
+    public final static String MON_MONITORABLE_PIDS = "mon.monitorable.pids";
+    /**
+     * Batch event <code>StatusVariable</code> names, <code>String[]</code>
+     */
+    public final static String MON_STATUSVARIABLE_NAMES = "mon.statusvariable.names";
+    /**
+     * Batch event measurement statuses, <code>String[]</code> of <code>ReadStatus</code> names.
+     * Only measurements with <code>OK</code> status have type, value and timestamp
+     */
+    public final static String MON_STATUSVARIABLE_STATUSES = "mon.statusvariable.statuses";
+    /**
+     * Batch event <code>StatusVariable</code> types, <code>int[]</code> of <code>StatusVariable.TYPE_*</code>.
+     * Type selects the values array that holds the measured value
+     */
+    public final static String MON_STATUSVARIABLE_TYPES = "mon.statusvariable.types";
+    /**
+     * Batch event values of <code>StatusVariable.TYPE_INTEGER</code> measurements, <code>int[]</code>
+     */
+    public final static String MON_STATUSVARIABLE_INTEGER_VALUES = "mon.statusvariable.values.integer";
+    /**
+     * Batch event values of <code>StatusVariable.TYPE_FLOAT</code> measurements, <code>float[]</code>
+     */
+    public final static String MON_STATUSVARIABLE_FLOAT_VALUES = "mon.statusvariable.values.float";
+    /**
+     * Batch event values of <code>StatusVariable.TYPE_BOOLEAN</code> measurements, <code>boolean[]</code>
+     */
+    public final static String MON_STATUSVARIABLE_BOOLEAN_VALUES = "mon.statusvariable.values.boolean";
+    /**
+     * Batch event values of <code>StatusVariable.TYPE_STRING</code> measurements, <code>String[]</code>
+     */
+    public final static String MON_STATUSVARIABLE_STRING_VALUES = "mon.statusvariable.values.string";
+    /**
+     * Batch event <code>StatusVariable</code> timestamps in milliseconds, <code>long[]</code>
+     */
+    public final static String MON_STATUSVARIABLE_TIMESTAMPS = "mon.statusvariable.timestamps";
+    /**
+     * Framework property: number of threads that run scheduled jobs
+     */
+    public final static String CONFIG_SCHEDULER_THREADS = "org.ops4j.pax.monitoradmin.scheduler.threads";
+    /**
+     * Framework property: <code>true</code> - <code>StatusVariable</code> updates are dispatched asynchronously
+     */
+    public final static String CONFIG_ASYNC_UPDATES = "org.ops4j.pax.monitoradmin.updates.async";
+    /**
+     * Framework property: number of asynchronous updates dispatcher shards
+     */
+    public final static String CONFIG_UPDATES_SHARDS = "org.ops4j.pax.monitoradmin.updates.shards";
+    /**
+     * Framework property: capacity of asynchronous updates queue of every shard
+     */
+    public final static String CONFIG_UPDATES_QUEUE_CAPACITY = "org.ops4j.pax.monitoradmin.updates.queue.capacity";
+    /**
+     * Framework property: asynchronous updates queue overflow policy (DROP_OLDEST, DROP_NEWEST, BLOCK)
+     */
+    public final static String CONFIG_UPDATES_OVERFLOW_POLICY = "org.ops4j.pax.monitoradmin.updates.queue.overflow";
+    /**
+     * Framework property: update events coalescing window in milliseconds, 0 - every update is posted
+     */
+    public final static String CONFIG_COALESCING_WINDOW = "org.ops4j.pax.monitoradmin.updates.coalescing.window";
+    /**
+     * Framework property: maximum number of interned <code>StatusVariable</code> paths
+     */
+    public final static String CONFIG_PATH_POOL_SIZE = "org.ops4j.pax.monitoradmin.paths.pool.size";
+    /**
+     * Framework property: <code>MonitorPermission</code> decisions cache time-to-live in milliseconds,
+     * 0 (default) - decisions are not cached. Permission changes made with Permission Admin are
+     * applied with this delay at most
+     */
+    public final static String CONFIG_PERMISSION_CACHE_TTL = "org.ops4j.pax.monitoradmin.permissions.cache.ttl";
+    /**
+     * Framework property: <code>MonitorPermission</code> checks mode (AUTO, ENABLED, DISABLED)
+     */
+    public final static String CONFIG_SECURITY_MODE = "org.ops4j.pax.monitoradmin.permissions.mode";
+    /**
+     * Framework property: number of threads that run asynchronous <code>Monitorable</code> reads
+     */
+    public final static String CONFIG_READER_THREADS = "org.ops4j.pax.monitoradmin.reader.threads";
+    /**
+     * Framework property: capacity of asynchronous <code>Monitorable</code> reads queue
+     */
+    public final static String CONFIG_READER_QUEUE_CAPACITY = "org.ops4j.pax.monitoradmin.reader.queue.capacity";
+    /**
+     * Framework property: maximum number of queued and running asynchronous reads of one <code>Monitorable</code>
+     */
+    public final static String CONFIG_READER_MONITORABLE_READS = "org.ops4j.pax.monitoradmin.reader.monitorable.reads";
+    /**
+     * Framework property: time in milliseconds that unhealthy <code>Monitorable</code> calls are rejected,
+     * 0 (default) - circuit breakers are off
+     */
+    public final static String CONFIG_BREAKER_OPEN_PERIOD = "org.ops4j.pax.monitoradmin.breaker.open.period";
+    /**
+     * Framework property: average <code>Monitorable</code> error rate in percents that opens circuit breaker
+     */
+    public final static String CONFIG_BREAKER_ERROR_RATE = "org.ops4j.pax.monitoradmin.breaker.error.rate";
+    /**
+     * Framework property: average <code>Monitorable</code> read latency in milliseconds that opens circuit breaker
+     */
+    public final static String CONFIG_BREAKER_LATENCY = "org.ops4j.pax.monitoradmin.breaker.latency";
+    /**
+     * Framework property: <code>true</code> - events carry typed <code>StatusVariable</code> value and timestamp,
+     * <code>false</code> - value is posted as <code>String</code>
+     */
+    public final static String CONFIG_TYPED_EVENTS = "org.ops4j.pax.monitoradmin.events.typed";
+    /**
+     * Framework property: topics of <code>StatusVariable</code> events (STANDARD, BOTH)
+     */
+    public final static String CONFIG_EVENT_TOPICS = "org.ops4j.pax.monitoradmin.events.topics";
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.ops4j.pax.monitoradmin.api.ReadStatus;
+import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
+import org.ops4j.pax.monitoradmin.util.Utils;
+import org.osgi.service.event.Event;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <code>StatusVariable</code> events factory. Topics and fixed properties of every <code>StatusVariable</code>
+ * are precomputed once into an immutable template, so ids are escaped once per <code>StatusVariable</code>.
+ * Event properties are put into one pre-sized <code>Hashtable</code> that is shared by events of all topics.
+ * <p/>
+ * In standard mode the value is converted to <code>String</code> as specified by MonitorAdmin. In typed mode
+ * the value is posted as <code>Boolean</code>, <code>Float</code>, <code>Integer</code> or <code>String</code>,
+ * and the <code>StatusVariable</code> timestamp is added as <code>Long</code> milliseconds.
+ * <p/>
+ * Every event is posted to the standard topic and, depending on topic scheme, also to the hierarchical
+ * <code>org/osgi/service/monitor/[Monitorable_ID]/[StatusVariable_ID]</code> topic. Ids are
+ * escaped with {@link Utils#escapeTopicToken(String)}.
+ * <p/>
+ * Batch event carries measurements of one scheduled job tick as parallel arrays indexed by measurement and
+ * is always posted to {@link ConstantsMonitorAdmin#BATCH_TOPIC}. Values are posted with their native types:
+ * measurement type selects one of integer, float, boolean and string values arrays. Measurements that are not
+ * taken keep their place in the arrays and are marked by their status.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class EventFactory {
+    /**
+     * Initial capacity of event properties: template properties, value, timestamp and initiator fit without rehash
+     */
+    private static final int PROPERTIES_CAPACITY = 7;
+
+    private final boolean typed;
+    private final TopicScheme topicScheme;
+    /**
+     * Monitorable Id to StatusVariable Id to event template index
+     */
+    private final Map<String, Map<String, EventTemplate>> templates =
+            new ConcurrentHashMap<String, Map<String, EventTemplate>>();
+
+    /**
+     * Initialize factory
+     *
+     * @param typed       <code>true</code> - values are posted with their native types
+     * @param topicScheme topics of events
+     */
+    public EventFactory(boolean typed, TopicScheme topicScheme) {
+        this.typed = typed;
+        this.topicScheme = topicScheme;
+    }
+
+    /**
+     * Create <code>StatusVariable</code> events, one event per topic
+     *
+     * @param monitorableId  monitorable Id
+     * @param statusVariable status variable
+     * @param initiator      initiator. if <code>null</code> - is not added to event
+     * @return events
+     */
+    public Event[] createEvents(String monitorableId, StatusVariable statusVariable, String initiator) {
+        EventTemplate template = getTemplate(monitorableId, statusVariable.getID());
+        Hashtable<String, Object> properties = new Hashtable<String, Object>(PROPERTIES_CAPACITY);
+        for (int i = 0; i < template.keys.length; i++) {
+            properties.put(template.keys[i], template.values[i]);
+        }
+        if (typed) {
+            properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE, getTypedValue(statusVariable));
+            properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_TIMESTAMP, statusVariable.getTimeStamp().getTime());
+        } else {
+            properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE, getStringValue(statusVariable));
+        }
+        if (initiator != null) {
+            properties.put(ConstantsMonitorAdmin.MON_LISTENER_ID, initiator);
+        }
+        // every event copies properties
+        Event[] events = new Event[template.topics.length];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new Event(template.topics[i], properties);
+        }
+        return events;
+    }
+
+    /**
+     * Create batch event of several measurements. Arrays are parallel: <code>i</code>-th measurement
+     * of <code>paths[i]</code> has <code>statuses[i]</code> status and, if it is taken,
+     * <code>statusVariables[i]</code> value
+     *
+     * @param paths           StatusVariable paths
+     * @param statusVariables status variables, <code>null</code> for measurements that are not taken
+     * @param statuses        measurement statuses
+     * @param initiator       initiator. if <code>null</code> - is not added to event
+     * @return batch event
+     */
+    public Event createBatchEvent(StatusVariablePath[] paths, StatusVariable[] statusVariables, ReadStatus[] statuses,
+                                  String initiator) {
+        int length = paths.length;
+        String[] monitorableIds = new String[length];
+        String[] names = new String[length];
+        String[] statusNames = new String[length];
+        int[] types = new int[length];
+        int[] integerValues = new int[length];
+        float[] floatValues = new float[length];
+        boolean[] booleanValues = new boolean[length];
+        String[] stringValues = new String[length];
+        long[] timestamps = new long[length];
+        for (int i = 0; i < length; i++) {
+            monitorableIds[i] = paths[i].getMonitorableId();
+            names[i] = paths[i].getStatusVariableId();
+            statusNames[i] = statuses[i].name();
+            StatusVariable statusVariable = statusVariables[i];
+            if (statusVariable == null) {
+                continue;
+            }
+            types[i] = statusVariable.getType();
+            switch (types[i]) {
+                case StatusVariable.TYPE_INTEGER:
+                    integerValues[i] = statusVariable.getInteger();
+                    break;
+                case StatusVariable.TYPE_FLOAT:
+                    floatValues[i] = statusVariable.getFloat();
+                    break;
+                case StatusVariable.TYPE_BOOLEAN:
+                    booleanValues[i] = statusVariable.getBoolean();
+                    break;
+                default:
+                    stringValues[i] = statusVariable.getString();
+            }
+            timestamps[i] = statusVariable.getTimeStamp().getTime();
+        }
+        Hashtable<String, Object> properties = new Hashtable<String, Object>();
+        properties.put(ConstantsMonitorAdmin.MON_MONITORABLE_PIDS, monitorableIds);
+        properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAMES, names);
+        properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_STATUSES, statusNames);
+        properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_TYPES, types);
+        properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_INTEGER_VALUES, integerValues);
+        properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_FLOAT_VALUES, floatValues);
+        properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_BOOLEAN_VALUES, booleanValues);
+        properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_STRING_VALUES, stringValues);
+        properties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_TIMESTAMPS, timestamps);
+        if (initiator != null) {
+            properties.put(ConstantsMonitorAdmin.MON_LISTENER_ID, initiator);
+        }
+        return new Event(ConstantsMonitorAdmin.BATCH_TOPIC, properties);
+    }
+
+    /**
+     * Drop templates of departed <code>Monitorable</code>
+     *
+     * @param monitorableId monitorable Id
+     */
+    public void evict(String monitorableId) {
+        templates.remove(monitorableId);
+    }
+
+    private EventTemplate getTemplate(String monitorableId, String statusVariableId) {
+        Map<String, EventTemplate> monitorableTemplates = templates.get(monitorableId);
+        if (monitorableTemplates == null) {
+            monitorableTemplates = new ConcurrentHashMap<String, EventTemplate>();
+            templates.put(monitorableId, monitorableTemplates);
+        }
+        EventTemplate template = monitorableTemplates.get(statusVariableId);
+        if (template == null) {
+            // concurrently created templates are equal
+            template = new EventTemplate(getTopics(monitorableId, statusVariableId), monitorableId, statusVariableId);
+            monitorableTemplates.put(statusVariableId, template);
+        }
+        return template;
+    }
+
+    private String[] getTopics(String monitorableId, String statusVariableId) {
+        switch (topicScheme) {
+            case BOTH:
+                return new String[]{ConstantsMonitorAdmin.TOPIC, ConstantsMonitorAdmin.TOPIC + '/'
+                        + Utils.escapeTopicToken(monitorableId) + '/' + Utils.escapeTopicToken(statusVariableId)};
+            default:
+                return new String[]{ConstantsMonitorAdmin.TOPIC};
+        }
+    }
+
+    private static Object getTypedValue(StatusVariable statusVariable) {
+        switch (statusVariable.getType()) {
+            case StatusVariable.TYPE_BOOLEAN:
+                return statusVariable.getBoolean();
+            case StatusVariable.TYPE_FLOAT:
+                return statusVariable.getFloat();
+            case StatusVariable.TYPE_INTEGER:
+                return statusVariable.getInteger();
+            default:
+                return statusVariable.getString();
+        }
+    }
+
+    private static String getStringValue(StatusVariable statusVariable) {
+        switch (statusVariable.getType()) {
+            case StatusVariable.TYPE_BOOLEAN:
+                return Boolean.toString(statusVariable.getBoolean());
+            case StatusVariable.TYPE_FLOAT:
+                return Float.toString(statusVariable.getFloat());
+            case StatusVariable.TYPE_INTEGER:
+                return Integer.toString(statusVariable.getInteger());
+            default:
+                return statusVariable.getString();
+        }
+    }
+
+    /**
+     * Immutable fixed properties of <code>StatusVariable</code> events
+     */
+    private static class EventTemplate {
+        private final String[] topics;
+        private final String[] keys;
+        private final Object[] values;
+
+        private EventTemplate(String[] topics, String monitorableId, String statusVariableId) {
+            this.topics = topics;
+            keys = new String[]{ConstantsMonitorAdmin.MON_MONITORABLE_PID, ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME};
+            values = new Object[]{monitorableId, statusVariableId};
+        }
+    }
+}
@@ -16,50 +16,158 @@
 
 package org.ops4j.pax.monitoradmin;
 
+import org.ops4j.pax.monitoradmin.api.BatchMonitorListener;
+import org.ops4j.pax.monitoradmin.api.MonitorableHealth;
+import org.ops4j.pax.monitoradmin.api.MonitorableUnavailableException;
+import org.ops4j.pax.monitoradmin.api.ReadStatus;
 import org.ops4j.pax.monitoradmin.job.AbstractMonitoringJob;
 import org.ops4j.pax.monitoradmin.job.MonitoringJobVisitor;
+import org.ops4j.pax.monitoradmin.job.PollingEngine;
+import org.ops4j.pax.monitoradmin.job.ScheduledMonitoringJob;
+import org.ops4j.pax.monitoradmin.job.SubscriptionMonitoringJob;
+import org.ops4j.pax.monitoradmin.util.DaemonThreadFactory;
+import org.ops4j.pax.monitoradmin.util.EventSwitches;
 import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
+import org.ops4j.pax.monitoradmin.util.StatusVariablePathPool;
 import org.ops4j.pax.monitoradmin.util.Utils;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.event.Event;
-import org.osgi.service.monitor.MonitorListener;
 import org.osgi.service.monitor.Monitorable;
 import org.osgi.service.monitor.MonitoringJob;
 import org.osgi.service.monitor.StatusVariable;
 
-import java.io.UnsupportedEncodingException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * MonitorAdmin common actions that are not related on Permissions
  *
  * @author dpishchukhin
  */
-public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor {
-    private static final String SYMBOLIC_NAME_CHARACTERS =
-            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ" + "0123456789" +
-                    "-_.";   // a subset of the characters allowed in DMT URIs
-
-    private static final int MAX_ID_LENGTH = 32;
-
+public class MonitorAdminCommon implements BatchMonitorListener, MonitoringJobVisitor,
+        MonitorableTracker.DepartureListener {
     public static final String PATH_PATERN = "%s/%s";
 
     /**
-     * Set of StatusVariable paths for which events are disabled
+     * StatusVariables for which events are disabled
+     */
+    private final EventSwitches eventSwitches = new EventSwitches();
+    /**
+     * List of run jobs. Is read without locks, modifications are serialized by <code>jobsLock</code>
+     */
+    private final List<AbstractMonitoringJob> jobs = new CopyOnWriteArrayList<AbstractMonitoringJob>();
+    /**
+     * Monitorable Id to StatusVariable Id to subscribed jobs index. Is read without locks,
+     * modifications are serialized by <code>jobsLock</code>
+     */
+    private final Map<String, Map<String, List<SubscriptionMonitoringJob>>> subscriptions =
+            new ConcurrentHashMap<String, Map<String, List<SubscriptionMonitoringJob>>>();
+    /**
+     * Jobs registry modifications lock
+     */
+    private final Object jobsLock = new Object();
+    /**
+     * Shared scheduler that runs all scheduled jobs
+     */
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Bounded pool that runs asynchronous Monitorable reads
+     */
+    private final MonitorableReadPool readPool;
+    /**
+     * Polling engine that takes measurements of scheduled jobs
      */
-    private final Set<String> disabledPaths = new HashSet<String>();
+    private final PollingEngine pollingEngine;
     /**
-     * List of run jobs
+     * Asynchronous updates dispatcher, <code>null</code> - updates are dispatched synchronously
      */
-    private final List<AbstractMonitoringJob> jobs = new ArrayList<AbstractMonitoringJob>();
+    private final ShardedUpdateDispatcher updateDispatcher;
+    /**
+     * Update events coalescer, <code>null</code> - every update is posted
+     */
+    private final UpdateCoalescer updateCoalescer;
+    /**
+     * Interned StatusVariable paths
+     */
+    private final StatusVariablePathPool pathPool;
+    /**
+     * MonitorPermission decisions cache, <code>null</code> - decisions are not cached
+     */
+    private final PermissionCache permissionCache;
+    /**
+     * Monitorable circuit breakers, <code>null</code> - breakers are off
+     */
+    private final CircuitBreakers circuitBreakers;
+    /**
+     * StatusVariable events factory
+     */
+    private final EventFactory eventFactory;
+    /**
+     * Monitorable Id to published StatusVariable names cache. Is refreshed on a miss
+     */
+    private final Map<String, PublishedNames> publishedNames = new ConcurrentHashMap<String, PublishedNames>();
 
     private final OsgiVisitor osgiVisitor;
     private final LogVisitor logVisitor;
 
     public MonitorAdminCommon(OsgiVisitor osgiVisitor, LogVisitor logVisitor) {
+        this(osgiVisitor, logVisitor, new MonitorAdminConfiguration());
+    }
+
+    public MonitorAdminCommon(OsgiVisitor osgiVisitor, LogVisitor logVisitor, MonitorAdminConfiguration configuration) {
         this.osgiVisitor = osgiVisitor;
         this.logVisitor = logVisitor;
+        StatusVariablePathPool.MonitorableRegistry registry = new StatusVariablePathPool.MonitorableRegistry() {
+            public boolean isRegistered(String monitorableId) {
+                return MonitorAdminCommon.this.osgiVisitor.findMonitorableReference(monitorableId) != null;
+            }
+        };
+        pathPool = new StatusVariablePathPool(configuration.getPathPoolSize(), registry);
+        eventFactory = new EventFactory(configuration.isTypedEvents(), configuration.getEventTopics());
+        scheduler = Executors.newScheduledThreadPool(configuration.getSchedulerThreads(),
+                new DaemonThreadFactory("MonitorAdmin Scheduler"));
+        pollingEngine = new PollingEngine(this, logVisitor, scheduler);
+        readPool = new MonitorableReadPool(configuration.getReaderThreads(), configuration.getReaderQueueCapacity(),
+                configuration.getReaderMonitorableReads());
+        if (configuration.isAsyncUpdates()) {
+            updateDispatcher = new ShardedUpdateDispatcher(this, logVisitor, configuration.getUpdatesShards(),
+                    configuration.getUpdatesQueueCapacity(), configuration.getUpdatesOverflowPolicy());
+            updateDispatcher.start();
+        } else {
+            updateDispatcher = null;
+        }
+        if (configuration.getCoalescingWindow() > 0) {
+            updateCoalescer = new UpdateCoalescer(this, logVisitor, scheduler, eventSwitches, registry,
+                    configuration.getCoalescingWindow());
+        } else {
+            updateCoalescer = null;
+        }
+        // unsecured MonitorAdmin instances never consult the cache
+        if (configuration.getPermissionCacheTtl() > 0 && configuration.getSecurityMode().isSecured()) {
+            permissionCache = new PermissionCache();
+            scheduler.scheduleAtFixedRate(new Runnable() {
+                public void run() {
+                    permissionCache.invalidateAll();
+                }
+            }, configuration.getPermissionCacheTtl(), configuration.getPermissionCacheTtl(), TimeUnit.MILLISECONDS);
+        } else {
+            permissionCache = null;
+        }
+        if (configuration.getBreakerOpenPeriod() > 0) {
+            circuitBreakers = new CircuitBreakers(logVisitor, configuration.getBreakerErrorRate() / 100.0,
+                    TimeUnit.MILLISECONDS.toNanos(configuration.getBreakerLatency()),
+                    TimeUnit.MILLISECONDS.toNanos(configuration.getBreakerOpenPeriod()));
+        } else {
+            circuitBreakers = null;
+        }
     }
 
     /**
@@ -76,20 +184,80 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      */
     public void updated(String monitorableId, StatusVariable statusVariable) throws IllegalArgumentException {
         // validate monitorableId
-        findMonitorableById(monitorableId);
+        findMonitorableReferenceById(monitorableId);
         if (statusVariable == null) {
             throw new IllegalArgumentException("StatusVariable is null");
         }
-        StatusVariablePath path = new StatusVariablePath(monitorableId, statusVariable.getID());
-        if (isEventEnabled(path.getPath())) {
-            fireEvent(monitorableId, statusVariable, null);
-            logVisitor.info("Fire new SV update Event: " + path.getPath(), null);
+        if (updateDispatcher != null) {
+            updateDispatcher.enqueue(monitorableId, statusVariable);
+        } else {
+            dispatchUpdate(monitorableId, statusVariable);
+        }
+    }
+
+    public void updated(String monitorableId, StatusVariable[] statusVariables) throws IllegalArgumentException {
+        // validate monitorableId
+        findMonitorableReferenceById(monitorableId);
+        if (statusVariables == null) {
+            throw new IllegalArgumentException("StatusVariables array is null");
+        }
+        if (updateDispatcher != null) {
+            // queued array must not be affected by changes that the Monitorable makes after the call
+            statusVariables = statusVariables.clone();
+        }
+        for (StatusVariable statusVariable : statusVariables) {
+            if (statusVariable == null) {
+                throw new IllegalArgumentException("StatusVariable is null");
+            }
+        }
+        if (updateDispatcher != null) {
+            updateDispatcher.enqueue(monitorableId, statusVariables);
+        } else {
+            dispatchUpdates(monitorableId, statusVariables);
+        }
+    }
+
+    /**
+     * Post update event and notify subscribed jobs
+     *
+     * @param monitorableId  validated monitorable Id
+     * @param statusVariable the <code>StatusVariable</code> that has changed
+     */
+    void dispatchUpdate(String monitorableId, StatusVariable statusVariable) {
+        dispatchUpdate(monitorableId, statusVariable, subscriptions.isEmpty() ? null : subscriptions.get(monitorableId));
+    }
+
+    /**
+     * Post update events and notify subscribed jobs in one pass
+     *
+     * @param monitorableId   validated monitorable Id
+     * @param statusVariables the <code>StatusVariable</code>s that have changed
+     */
+    void dispatchUpdates(String monitorableId, StatusVariable[] statusVariables) {
+        Map<String, List<SubscriptionMonitoringJob>> monitorableSubscriptions =
+                subscriptions.isEmpty() ? null : subscriptions.get(monitorableId);
+        for (StatusVariable statusVariable : statusVariables) {
+            dispatchUpdate(monitorableId, statusVariable, monitorableSubscriptions);
+        }
+    }
+
+    private void dispatchUpdate(String monitorableId, StatusVariable statusVariable,
+                                Map<String, List<SubscriptionMonitoringJob>> monitorableSubscriptions) {
+        String statusVariableId = statusVariable.getID();
+        if (eventSwitches.isEnabled(monitorableId, statusVariableId)) {
+            if (updateCoalescer != null) {
+                updateCoalescer.update(monitorableId, statusVariable);
+            } else {
+                fireEvent(monitorableId, statusVariable, null);
+                logVisitor.info("Fire new SV update Event: " + monitorableId + '/' + statusVariableId, null);
+            }
         }
         // find jobs that handle this StatusVariable update event
-        if (!jobs.isEmpty()) {
-            synchronized (jobs) {
-                for (AbstractMonitoringJob job : jobs) {
-                    if (job.isHandleUpdateEvent(path.getPath())) {
+        if (monitorableSubscriptions != null) {
+            List<SubscriptionMonitoringJob> subscribedJobs = monitorableSubscriptions.get(statusVariableId);
+            if (subscribedJobs != null) {
+                for (SubscriptionMonitoringJob job : subscribedJobs) {
+                    if (job.isRunning()) {
                         job.handleUpdateEvent(monitorableId, statusVariable);
                     }
                 }
@@ -103,17 +271,7 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      * @return array with StatusVariable paths
      */
     public String[] getDisabledNotificationPaths() {
-        return disabledPaths.toArray(new String[disabledPaths.size()]);
-    }
-
-    /**
-     * Check if events are disabled for given path
-     *
-     * @param path path to check
-     * @return if events are disabled - <code>true</code>, otherwise - <code>false</code>
-     */
-    private boolean isEventEnabled(String path) {
-        return !disabledPaths.contains(path);
+        return eventSwitches.getDisabledPaths();
     }
 
     /**
@@ -132,29 +290,22 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      *                                  to non-existing service or monitorableId is invalid
      */
     private Monitorable findMonitorableById(String monitorableId) throws IllegalArgumentException {
-        if (monitorableId == null) {
-            throw new IllegalArgumentException("MonitorableId is null");
-        }
-
-        if (!Utils.validatePathId(monitorableId)) {
-            throw new IllegalArgumentException("MonitorableId is invalid");
-        }
-
-        ServiceReference mostSuitableMonitorable = null;
-        ServiceReference[] serviceReferences = osgiVisitor.findMonitorableReferences(monitorableId);
+        return getMonitorable(findMonitorableReferenceById(monitorableId));
+    }
 
-        if (serviceReferences != null) {
-            for (ServiceReference serviceReference : serviceReferences) {
-                if (mostSuitableMonitorable == null ||
-                        mostSuitableMonitorable.compareTo(serviceReference) < 0) {
-                    mostSuitableMonitorable = serviceReference;
-                }
-            }
-        }
-        if (mostSuitableMonitorable == null) {
-            throw new IllegalArgumentException("Monitorable ID: " + monitorableId + " points to non-existing service");
+    /**
+     * Get Monitorable service by service reference
+     *
+     * @param serviceReference <code>Monitorable</code> service reference
+     * @return Monitorable service
+     * @throws IllegalArgumentException service is unregistered
+     */
+    private Monitorable getMonitorable(ServiceReference serviceReference) throws IllegalArgumentException {
+        Monitorable monitorable = osgiVisitor.getService(serviceReference);
+        if (monitorable == null) {
+            throw new IllegalArgumentException("Monitorable service is unregistered: " + serviceReference);
         }
-        return osgiVisitor.getService(mostSuitableMonitorable);
+        return monitorable;
     }
 
     /**
@@ -181,17 +332,7 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
             throw new IllegalArgumentException("MonitorableId is invalid");
         }
 
-        ServiceReference mostSuitableMonitorable = null;
-        ServiceReference[] serviceReferences = osgiVisitor.findMonitorableReferences(monitorableId);
-
-        if (serviceReferences != null) {
-            for (ServiceReference serviceReference : serviceReferences) {
-                if (mostSuitableMonitorable == null ||
-                        mostSuitableMonitorable.compareTo(serviceReference) < 0) {
-                    mostSuitableMonitorable = serviceReference;
-                }
-            }
-        }
+        ServiceReference mostSuitableMonitorable = osgiVisitor.findMonitorableReference(monitorableId);
         if (mostSuitableMonitorable == null) {
             throw new IllegalArgumentException("Monitorable ID: " + monitorableId + " points to non-existing service");
         }
@@ -244,8 +385,26 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      * @param job MonitoringJob
      */
     public void addJob(AbstractMonitoringJob job) {
-        synchronized (jobs) {
+        synchronized (jobsLock) {
             jobs.add(job);
+            if (job instanceof SubscriptionMonitoringJob) {
+                for (String path : job.getStatusVariableNames()) {
+                    StatusVariablePath statusVariablePath = pathPool.get(path);
+                    Map<String, List<SubscriptionMonitoringJob>> monitorableSubscriptions =
+                            subscriptions.get(statusVariablePath.getMonitorableId());
+                    if (monitorableSubscriptions == null) {
+                        monitorableSubscriptions = new ConcurrentHashMap<String, List<SubscriptionMonitoringJob>>();
+                        subscriptions.put(statusVariablePath.getMonitorableId(), monitorableSubscriptions);
+                    }
+                    List<SubscriptionMonitoringJob> subscribedJobs =
+                            monitorableSubscriptions.get(statusVariablePath.getStatusVariableId());
+                    if (subscribedJobs == null) {
+                        subscribedJobs = new CopyOnWriteArrayList<SubscriptionMonitoringJob>();
+                        monitorableSubscriptions.put(statusVariablePath.getStatusVariableId(), subscribedJobs);
+                    }
+                    subscribedJobs.add((SubscriptionMonitoringJob) job);
+                }
+            }
         }
     }
 
@@ -256,11 +415,9 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      */
     public List<MonitoringJob> getRunningJobs() {
         List<MonitoringJob> runningJobs = new ArrayList<MonitoringJob>();
-        synchronized (jobs) {
-            for (AbstractMonitoringJob job : jobs) {
-                if (job.isRunning()) {
-                    runningJobs.add(job);
-                }
+        for (AbstractMonitoringJob job : jobs) {
+            if (job.isRunning()) {
+                runningJobs.add(job);
             }
         }
         return runningJobs;
@@ -281,10 +438,11 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
             throws IllegalArgumentException {
         logVisitor.debug("ENTRY: getStatusVariable: " + path, null);
         try {
-            StatusVariablePath statusVariablePath = new StatusVariablePath(path);
+            StatusVariablePath statusVariablePath = pathPool.get(path);
             Monitorable monitorable = findMonitorableById(statusVariablePath.getMonitorableId());
 
-            return monitorable.getStatusVariable(statusVariablePath.getStatusVariableId());
+            return readStatusVariable(statusVariablePath.getMonitorableId(), monitorable,
+                    statusVariablePath.getStatusVariableId());
         } finally {
             logVisitor.debug("EXIT: getStatusVariable: " + path, null);
         }
@@ -301,7 +459,65 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      *          non-existing <code>StatusVariable</code>
      */
     public StatusVariable getStatusVariable(ServiceReference serviceReference, String statusVariableId) {
-        return osgiVisitor.getService(serviceReference).getStatusVariable(statusVariableId);
+        return getMonitorable(serviceReference).getStatusVariable(statusVariableId);
+    }
+
+    /**
+     * Returns a <code>StatusVariable</code> addressed by Monitorable service reference and its id.
+     * Unlike {@link #getStatusVariable(ServiceReference, String)} the read is passed through the circuit
+     * breaker of <code>Monitorable</code>: it is used by extended reads and scheduled jobs, standard
+     * <code>MonitorAdmin</code> reads are not rejected
+     *
+     * @param serviceReference <code>Monitorable</code> service reference
+     * @param statusVariableId <code>StatusVariable</code> id
+     * @return the <code>StatusVariable</code> object
+     * @throws IllegalArgumentException        points to a non-existing <code>StatusVariable</code>
+     * @throws MonitorableUnavailableException circuit breaker of <code>Monitorable</code> is open
+     */
+    public StatusVariable readStatusVariable(ServiceReference serviceReference, String statusVariableId)
+            throws IllegalArgumentException, MonitorableUnavailableException {
+        return readStatusVariable((String) serviceReference.getProperty(Constants.SERVICE_PID),
+                getMonitorable(serviceReference), statusVariableId);
+    }
+
+    /**
+     * Read <code>StatusVariable</code> through the circuit breaker of <code>Monitorable</code>
+     *
+     * @param monitorableId    monitorable Id
+     * @param monitorable      Monitorable service
+     * @param statusVariableId <code>StatusVariable</code> id
+     * @return the <code>StatusVariable</code> object
+     * @throws IllegalArgumentException        <code>StatusVariable</code> does not exist
+     * @throws MonitorableUnavailableException circuit breaker of <code>Monitorable</code> is open
+     */
+    private StatusVariable readStatusVariable(String monitorableId, Monitorable monitorable, String statusVariableId)
+            throws IllegalArgumentException, MonitorableUnavailableException {
+        if (circuitBreakers == null) {
+            return monitorable.getStatusVariable(statusVariableId);
+        }
+        CircuitBreakers.Call call = circuitBreakers.acquire(monitorableId);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            StatusVariable statusVariable = monitorable.getStatusVariable(statusVariableId);
+            failed = false;
+            return statusVariable;
+        } catch (IllegalArgumentException e) {
+            // unknown StatusVariable is not a Monitorable failure
+            failed = false;
+            throw e;
+        } finally {
+            call.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Get health of <code>Monitorable</code>s that were read
+     *
+     * @return health snapshots, empty array if circuit breakers are off
+     */
+    public MonitorableHealth[] getMonitorableHealth() {
+        return circuitBreakers != null ? circuitBreakers.getHealth() : new MonitorableHealth[0];
     }
 
     /**
@@ -316,7 +532,7 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      *          non-existing <code>StatusVariable</code>
      */
     public String getDescription(ServiceReference serviceReference, String statusVariableId) {
-        return osgiVisitor.getService(serviceReference).getDescription(statusVariableId);
+        return getMonitorable(serviceReference).getDescription(statusVariableId);
     }
 
     /**
@@ -331,7 +547,7 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      *          non-existing <code>StatusVariable</code>
      */
     public boolean notifiesOnChange(ServiceReference serviceReference, String statusVariableId) {
-        return osgiVisitor.getService(serviceReference).notifiesOnChange(statusVariableId);
+        return getMonitorable(serviceReference).notifiesOnChange(statusVariableId);
     }
 
     /**
@@ -346,7 +562,7 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      *          non-existing <code>StatusVariable</code>
      */
     public boolean resetStatusVariable(ServiceReference serviceReference, String statusVariableId) {
-        return osgiVisitor.getService(serviceReference).resetStatusVariable(statusVariableId);
+        return getMonitorable(serviceReference).resetStatusVariable(statusVariableId);
     }
 
 
@@ -356,8 +572,28 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      * @param job job to cancel
      */
     public void cancelJob(AbstractMonitoringJob job) {
-        synchronized (jobs) {
+        synchronized (jobsLock) {
             jobs.remove(job);
+            if (job instanceof SubscriptionMonitoringJob) {
+                for (String path : job.getStatusVariableNames()) {
+                    StatusVariablePath statusVariablePath = pathPool.get(path);
+                    Map<String, List<SubscriptionMonitoringJob>> monitorableSubscriptions =
+                            subscriptions.get(statusVariablePath.getMonitorableId());
+                    if (monitorableSubscriptions != null) {
+                        List<SubscriptionMonitoringJob> subscribedJobs =
+                                monitorableSubscriptions.get(statusVariablePath.getStatusVariableId());
+                        if (subscribedJobs != null) {
+                            subscribedJobs.remove(job);
+                            if (subscribedJobs.isEmpty()) {
+                                monitorableSubscriptions.remove(statusVariablePath.getStatusVariableId());
+                                if (monitorableSubscriptions.isEmpty()) {
+                                    subscriptions.remove(statusVariablePath.getMonitorableId());
+                                }
+                            }
+                        }
+                    }
+                }
+            }
             job.cancel();
         }
     }
@@ -369,13 +605,12 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
         logVisitor.debug("ENTRY: cancelJobs", null);
         try {
             if (!jobs.isEmpty()) {
-                synchronized (jobs) {
-                    Iterator<AbstractMonitoringJob> iterator = jobs.iterator();
-                    while (iterator.hasNext()) {
-                        AbstractMonitoringJob job = iterator.next();
+                synchronized (jobsLock) {
+                    for (AbstractMonitoringJob job : jobs) {
                         job.cancel();
-                        iterator.remove();
                     }
+                    jobs.clear();
+                    subscriptions.clear();
                 }
             }
         } finally {
@@ -383,6 +618,99 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
         }
     }
 
+    /**
+     * Cancel all jobs, stop shared scheduler, asynchronous reads pool and asynchronous updates dispatcher
+     */
+    public void shutdown() {
+        cancelAllJobs();
+        scheduler.shutdownNow();
+        readPool.shutdown();
+        if (updateDispatcher != null) {
+            updateDispatcher.stop();
+        }
+    }
+
+    /**
+     * Get number of asynchronous updates that were dropped because of queue overflow
+     *
+     * @return dropped updates count, always <code>0</code> if updates are dispatched synchronously
+     */
+    public long getDroppedUpdates() {
+        return updateDispatcher != null ? updateDispatcher.getDroppedUpdates() : 0;
+    }
+
+    /**
+     * Get number of asynchronous updates that are waiting for dispatching in every shard
+     *
+     * @return queue depths indexed by shard, empty array if updates are dispatched synchronously
+     */
+    public int[] getUpdatesQueueDepths() {
+        return updateDispatcher != null ? updateDispatcher.getQueueDepths() : new int[0];
+    }
+
+    /**
+     * Submit <code>Monitorable</code> read to the asynchronous reads pool
+     *
+     * @param monitorableId monitorable Id
+     * @param read          read task
+     * @return read result future
+     * @throws MonitorableUnavailableException <code>Monitorable</code> has too many reads in progress
+     * @throws RejectedExecutionException      reads queue is full
+     */
+    public <T> Future<T> submitRead(String monitorableId, Callable<T> read)
+            throws MonitorableUnavailableException, RejectedExecutionException {
+        return readPool.submit(monitorableId, read);
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Get <code>MonitorPermission</code> decisions cache
+     *
+     * @return cache or <code>null</code> if decisions are not cached
+     */
+    public PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    public StatusVariablePath getStatusVariablePath(String path) throws IllegalArgumentException {
+        return pathPool.get(path);
+    }
+
+    public StatusVariablePath getStatusVariablePath(String monitorableId, String statusVariableId)
+            throws IllegalArgumentException {
+        return pathPool.get(monitorableId, statusVariableId);
+    }
+
+    /**
+     * Release cached state of departed <code>Monitorable</code>: interned paths, published names,
+     * event templates, reads counter, circuit breaker and pending coalesced events
+     *
+     * @param monitorableId monitorable Id
+     */
+    public void monitorableDeparted(String monitorableId) {
+        pathPool.evict(monitorableId);
+        publishedNames.remove(monitorableId);
+        eventFactory.evict(monitorableId);
+        readPool.evict(monitorableId);
+        if (circuitBreakers != null) {
+            circuitBreakers.remove(monitorableId);
+        }
+        if (updateCoalescer != null) {
+            updateCoalescer.clear(monitorableId);
+        }
+    }
+
+    public void scheduleJob(ScheduledMonitoringJob job) {
+        pollingEngine.add(job);
+    }
+
+    public void unscheduleJob(ScheduledMonitoringJob job) {
+        pollingEngine.remove(job);
+    }
+
     /**
      * Fire StatusVariable update event
      *
@@ -391,33 +719,27 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      * @param initiator      initiator. if <code>null</code> - is not added to event
      */
     public void fireEvent(String monitorableId, StatusVariable statusVariable, String initiator) {
-        Dictionary<String, String> eventProperties = new Hashtable<String, String>();
-        eventProperties.put(ConstantsMonitorAdmin.MON_MONITORABLE_PID, monitorableId);
-        eventProperties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME, statusVariable.getID());
-
-        String value = null;
-        switch (statusVariable.getType()) {
-            case StatusVariable.TYPE_BOOLEAN:
-                value = Boolean.toString(statusVariable.getBoolean());
-                break;
-            case StatusVariable.TYPE_FLOAT:
-                value = Float.toString(statusVariable.getFloat());
-                break;
-            case StatusVariable.TYPE_INTEGER:
-                value = Integer.toString(statusVariable.getInteger());
-                break;
-            case StatusVariable.TYPE_STRING:
-                value = statusVariable.getString();
-                break;
-        }
-        eventProperties.put(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE, value);
-        if (initiator != null) {
-            eventProperties.put(ConstantsMonitorAdmin.MON_LISTENER_ID, initiator);
-        }
-
-        Event event = new Event(ConstantsMonitorAdmin.TOPIC, eventProperties);
         try {
-            osgiVisitor.postEvent(event);
+            for (Event event : eventFactory.createEvents(monitorableId, statusVariable, initiator)) {
+                osgiVisitor.postEvent(event);
+            }
+        } catch (SecurityException e) {
+            logVisitor.error("MonitorAdmin bundle does not have TopicPermission", e);
+        }
+    }
+
+    /**
+     * Fire batch event of scheduled job tick
+     *
+     * @param paths           StatusVariable paths
+     * @param statusVariables status variables, parallel to <code>paths</code>, <code>null</code> if not read
+     * @param statuses        read statuses, parallel to <code>paths</code>
+     * @param initiator       initiator. if <code>null</code> - is not added to event
+     */
+    public void fireBatchEvent(StatusVariablePath[] paths, StatusVariable[] statusVariables, ReadStatus[] statuses,
+                               String initiator) {
+        try {
+            osgiVisitor.postEvent(eventFactory.createBatchEvent(paths, statusVariables, statuses, initiator));
         } catch (SecurityException e) {
             logVisitor.error("MonitorAdmin bundle does not have TopicPermission", e);
         }
@@ -426,15 +748,13 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
     /**
      * Switch on/off events
      *
-     * @param paths <code>StatusVariable</code> paths
-     * @param on     <code>false</code> if event sending should be switched off,
-     *               <code>true</code> if it should be switched on for the given path
+     * @param statusVariables <code>StatusVariable</code> Ids grouped by monitorable Id
+     * @param on              <code>false</code> if event sending should be switched off,
+     *                        <code>true</code> if it should be switched on for the given path
      */
-    public void switchEvents(Set<String> paths, boolean on) {
-        if (on) {
-            disabledPaths.removeAll(paths);
-        } else {
-            disabledPaths.addAll(paths);
+    public void switchEvents(Map<String, ? extends Collection<String>> statusVariables, boolean on) {
+        for (Map.Entry<String, ? extends Collection<String>> entry : statusVariables.entrySet()) {
+            eventSwitches.switchEvents(entry.getKey(), entry.getValue(), on);
         }
     }
 
@@ -468,7 +788,22 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      *          non-existing <code>Monitorable</code>
      */
     public String[] getStatusVariableNames(String monitorableId) {
-        Monitorable monitorable = findMonitorableById(monitorableId);
+        return getStatusVariableNames(findMonitorableById(monitorableId));
+    }
+
+    /**
+     * Returns the list of <code>StatusVariable</code> names published by a <code>Monitorable</code> service.
+     *
+     * @param serviceReference <code>Monitorable</code> service reference
+     * @return a list of <code>StatusVariable</code> objects names
+     * @throws java.lang.IllegalArgumentException
+     *          if <code>Monitorable</code> service is unregistered
+     */
+    public String[] getStatusVariableNames(ServiceReference serviceReference) {
+        return getStatusVariableNames(getMonitorable(serviceReference));
+    }
+
+    private String[] getStatusVariableNames(Monitorable monitorable) {
         String[] statusVariableNames = monitorable.getStatusVariableNames();
 
         List<String> result = new ArrayList<String>();
@@ -481,6 +816,48 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
         return result.toArray(new String[result.size()]);
     }
 
+    /**
+     * Check if <code>StatusVariable</code> is published by <code>Monitorable</code>. Published names are cached
+     * per <code>Monitorable</code> and are reloaded if the name is not found or the <code>Monitorable</code>
+     * service is replaced
+     *
+     * @param serviceReference <code>Monitorable</code> service reference
+     * @param monitorableId    monitorable Id
+     * @param statusVariableId StatusVariable Id
+     * @return <code>true</code> - <code>StatusVariable</code> is published
+     * @throws IllegalArgumentException <code>Monitorable</code> service is unregistered
+     */
+    public boolean isPublished(ServiceReference serviceReference, String monitorableId, String statusVariableId)
+            throws IllegalArgumentException {
+        PublishedNames names = publishedNames.get(monitorableId);
+        if (names != null && names.serviceReference.equals(serviceReference)
+                && names.statusVariableIds.contains(statusVariableId)) {
+            return true;
+        }
+        // StatusVariable could be published after the names were cached
+        Set<String> statusVariableIds = new HashSet<String>();
+        for (String statusVariableName : getMonitorable(serviceReference).getStatusVariableNames()) {
+            if (isValidId(statusVariableName)) {
+                statusVariableIds.add(statusVariableName);
+            }
+        }
+        publishedNames.put(monitorableId, new PublishedNames(serviceReference, statusVariableIds));
+        return statusVariableIds.contains(statusVariableId);
+    }
+
+    /**
+     * Cached names of <code>StatusVariable</code>s published by one <code>Monitorable</code> service
+     */
+    private static class PublishedNames {
+        private final ServiceReference serviceReference;
+        private final Set<String> statusVariableIds;
+
+        private PublishedNames(ServiceReference serviceReference, Set<String> statusVariableIds) {
+            this.serviceReference = serviceReference;
+            this.statusVariableIds = statusVariableIds;
+        }
+    }
+
     private static class ServiceReferencePidComparator implements Comparator<ServiceReference> {
         public int compare(ServiceReference o1, ServiceReference o2) {
             String pid1 = (String) o1.getProperty(Constants.SERVICE_PID);
@@ -495,30 +872,7 @@ public class MonitorAdminCommon implements MonitorListener, MonitoringJobVisitor
      * @return <code>false</code> - id is invalid, otherwise - <code>true</code>
      */
     public static boolean isValidId(String id) {
-
-        byte[] nameBytes;
-        try {
-            nameBytes = id.getBytes("UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            // never happens, "UTF-8" must always be supported
-            return false;
-        }
-        if (nameBytes.length > MAX_ID_LENGTH) {
-            return false;
-        }
-
-
-        if (id.equals(".") || id.equals("..")) {
-            return false;
-        }
-
-        char[] chars = id.toCharArray();
-        for (char aChar : chars) {
-            if (SYMBOLIC_NAME_CHARACTERS.indexOf(aChar) == -1) {
-                return false;
-            }
-        }
-        return true;
+        return Utils.validateName(id);
     }
 
 }
@@ -0,0 +1,542 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin;
+
+import org.ops4j.pax.monitoradmin.util.StatusVariablePathPool;
+import org.osgi.framework.BundleContext;
+
+/**
+ * MonitorAdmin configuration. Values are read from framework properties on bundle start.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class MonitorAdminConfiguration {
+    /**
+     * Default number of threads that run scheduled jobs
+     */
+    public static final int DEFAULT_SCHEDULER_THREADS = 2;
+    /**
+     * Default number of asynchronous updates dispatcher shards
+     */
+    public static final int DEFAULT_UPDATES_SHARDS = 1;
+    /**
+     * Default capacity of asynchronous updates queue
+     */
+    public static final int DEFAULT_UPDATES_QUEUE_CAPACITY = 4096;
+    /**
+     * Default asynchronous updates queue overflow policy
+     */
+    public static final OverflowPolicy DEFAULT_UPDATES_OVERFLOW_POLICY = OverflowPolicy.DROP_OLDEST;
+    /**
+     * Default permission decisions cache time-to-live in milliseconds
+     */
+    public static final int DEFAULT_PERMISSION_CACHE_TTL = 0;
+    /**
+     * Default <code>MonitorPermission</code> checks mode
+     */
+    public static final SecurityMode DEFAULT_SECURITY_MODE = SecurityMode.AUTO;
+    /**
+     * Default number of asynchronous reads threads
+     */
+    public static final int DEFAULT_READER_THREADS = 4;
+    /**
+     * Default capacity of asynchronous reads queue
+     */
+    public static final int DEFAULT_READER_QUEUE_CAPACITY = 1024;
+    /**
+     * Default maximum number of queued and running asynchronous reads of one <code>Monitorable</code>
+     */
+    public static final int DEFAULT_READER_MONITORABLE_READS = 1;
+    /**
+     * Default circuit breaker open period in milliseconds
+     */
+    public static final int DEFAULT_BREAKER_OPEN_PERIOD = 0;
+    /**
+     * Default error rate in percents that opens circuit breaker
+     */
+    public static final int DEFAULT_BREAKER_ERROR_RATE = 50;
+    /**
+     * Default average read latency in milliseconds that opens circuit breaker
+     */
+    public static final int DEFAULT_BREAKER_LATENCY = 1000;
+    /**
+     * Default topics of <code>StatusVariable</code> events
+     */
+    public static final TopicScheme DEFAULT_EVENT_TOPICS = TopicScheme.STANDARD;
+
+    private int schedulerThreads = DEFAULT_SCHEDULER_THREADS;
+    private boolean asyncUpdates = false;
+    private int updatesShards = DEFAULT_UPDATES_SHARDS;
+    private int updatesQueueCapacity = DEFAULT_UPDATES_QUEUE_CAPACITY;
+    private OverflowPolicy updatesOverflowPolicy = DEFAULT_UPDATES_OVERFLOW_POLICY;
+    private int coalescingWindow = 0;
+    private int pathPoolSize = StatusVariablePathPool.DEFAULT_MAX_SIZE;
+    private int permissionCacheTtl = DEFAULT_PERMISSION_CACHE_TTL;
+    private SecurityMode securityMode = DEFAULT_SECURITY_MODE;
+    private int readerThreads = DEFAULT_READER_THREADS;
+    private int readerQueueCapacity = DEFAULT_READER_QUEUE_CAPACITY;
+    private int readerMonitorableReads = DEFAULT_READER_MONITORABLE_READS;
+    private int breakerOpenPeriod = DEFAULT_BREAKER_OPEN_PERIOD;
+    private int breakerErrorRate = DEFAULT_BREAKER_ERROR_RATE;
+    private int breakerLatency = DEFAULT_BREAKER_LATENCY;
+    private boolean typedEvents = false;
+    private TopicScheme eventTopics = DEFAULT_EVENT_TOPICS;
+
+    /**
+     * Load configuration from framework properties
+     *
+     * @param bc         BundleContext
+     * @param logVisitor logger to report invalid values
+     * @return configuration, properties that are not set or are invalid have default values
+     */
+    public static MonitorAdminConfiguration load(BundleContext bc, LogVisitor logVisitor) {
+        MonitorAdminConfiguration configuration = new MonitorAdminConfiguration();
+        configuration.setSchedulerThreads(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_SCHEDULER_THREADS,
+                DEFAULT_SCHEDULER_THREADS, 1));
+        configuration.setAsyncUpdates(Boolean.valueOf(bc.getProperty(ConstantsMonitorAdmin.CONFIG_ASYNC_UPDATES)));
+        configuration.setUpdatesShards(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_UPDATES_SHARDS,
+                DEFAULT_UPDATES_SHARDS, 1));
+        configuration.setUpdatesQueueCapacity(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_UPDATES_QUEUE_CAPACITY,
+                DEFAULT_UPDATES_QUEUE_CAPACITY, 1));
+        configuration.setUpdatesOverflowPolicy(getEnum(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_UPDATES_OVERFLOW_POLICY,
+                DEFAULT_UPDATES_OVERFLOW_POLICY));
+        configuration.setCoalescingWindow(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_COALESCING_WINDOW, 0, 0));
+        configuration.setPathPoolSize(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_PATH_POOL_SIZE,
+                StatusVariablePathPool.DEFAULT_MAX_SIZE, 0));
+        configuration.setPermissionCacheTtl(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_PERMISSION_CACHE_TTL,
+                DEFAULT_PERMISSION_CACHE_TTL, 0));
+        configuration.setSecurityMode(getEnum(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_SECURITY_MODE,
+                DEFAULT_SECURITY_MODE));
+        configuration.setReaderThreads(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_READER_THREADS,
+                DEFAULT_READER_THREADS, 1));
+        configuration.setReaderQueueCapacity(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_READER_QUEUE_CAPACITY,
+                DEFAULT_READER_QUEUE_CAPACITY, 1));
+        configuration.setReaderMonitorableReads(getInt(bc, logVisitor,
+                ConstantsMonitorAdmin.CONFIG_READER_MONITORABLE_READS, DEFAULT_READER_MONITORABLE_READS, 1));
+        configuration.setBreakerOpenPeriod(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_BREAKER_OPEN_PERIOD,
+                DEFAULT_BREAKER_OPEN_PERIOD, 0));
+        configuration.setBreakerErrorRate(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_BREAKER_ERROR_RATE,
+                DEFAULT_BREAKER_ERROR_RATE, 1));
+        configuration.setBreakerLatency(getInt(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_BREAKER_LATENCY,
+                DEFAULT_BREAKER_LATENCY, 1));
+        configuration.setTypedEvents(Boolean.valueOf(bc.getProperty(ConstantsMonitorAdmin.CONFIG_TYPED_EVENTS)));
+        configuration.setEventTopics(getEnum(bc, logVisitor, ConstantsMonitorAdmin.CONFIG_EVENT_TOPICS,
+                DEFAULT_EVENT_TOPICS));
+        return configuration;
+    }
+
+    /**
+     * Get number of threads that run scheduled jobs
+     *
+     * @return number of threads
+     */
+    public int getSchedulerThreads() {
+        return schedulerThreads;
+    }
+
+    /**
+     * Set number of threads that run scheduled jobs
+     *
+     * @param schedulerThreads number of threads
+     * @throws IllegalArgumentException value is less than 1
+     */
+    public void setSchedulerThreads(int schedulerThreads) {
+        if (schedulerThreads < 1) {
+            throw new IllegalArgumentException("Scheduler threads count is invalid: " + schedulerThreads);
+        }
+        this.schedulerThreads = schedulerThreads;
+    }
+
+    /**
+     * Check if <code>StatusVariable</code> updates are dispatched asynchronously
+     *
+     * @return <code>true</code> - updates are queued and dispatched by the dedicated thread,
+     *         <code>false</code> - updates are dispatched on the <code>Monitorable</code> thread
+     */
+    public boolean isAsyncUpdates() {
+        return asyncUpdates;
+    }
+
+    /**
+     * Switch asynchronous updates dispatching on/off
+     *
+     * @param asyncUpdates <code>true</code> - dispatch updates asynchronously
+     */
+    public void setAsyncUpdates(boolean asyncUpdates) {
+        this.asyncUpdates = asyncUpdates;
+    }
+
+    /**
+     * Get number of asynchronous updates dispatcher shards
+     *
+     * @return number of shards
+     */
+    public int getUpdatesShards() {
+        return updatesShards;
+    }
+
+    /**
+     * Set number of asynchronous updates dispatcher shards. Every shard has its own queue and thread
+     *
+     * @param updatesShards number of shards
+     * @throws IllegalArgumentException value is less than 1
+     */
+    public void setUpdatesShards(int updatesShards) {
+        if (updatesShards < 1) {
+            throw new IllegalArgumentException("Updates shards count is invalid: " + updatesShards);
+        }
+        this.updatesShards = updatesShards;
+    }
+
+    /**
+     * Get capacity of asynchronous updates queue of every shard
+     *
+     * @return queue capacity
+     */
+    public int getUpdatesQueueCapacity() {
+        return updatesQueueCapacity;
+    }
+
+    /**
+     * Set capacity of asynchronous updates queue
+     *
+     * @param updatesQueueCapacity queue capacity
+     * @throws IllegalArgumentException value is less than 1
+     */
+    public void setUpdatesQueueCapacity(int updatesQueueCapacity) {
+        if (updatesQueueCapacity < 1) {
+            throw new IllegalArgumentException("Updates queue capacity is invalid: " + updatesQueueCapacity);
+        }
+        this.updatesQueueCapacity = updatesQueueCapacity;
+    }
+
+    /**
+     * Get asynchronous updates queue overflow policy
+     *
+     * @return overflow policy
+     */
+    public OverflowPolicy getUpdatesOverflowPolicy() {
+        return updatesOverflowPolicy;
+    }
+
+    /**
+     * Set asynchronous updates queue overflow policy
+     *
+     * @param updatesOverflowPolicy overflow policy
+     * @throws IllegalArgumentException policy is <code>null</code>
+     */
+    public void setUpdatesOverflowPolicy(OverflowPolicy updatesOverflowPolicy) {
+        if (updatesOverflowPolicy == null) {
+            throw new IllegalArgumentException("Updates overflow policy is null");
+        }
+        this.updatesOverflowPolicy = updatesOverflowPolicy;
+    }
+
+    /**
+     * Get update events coalescing window
+     *
+     * @return window in milliseconds, <code>0</code> - coalescing is off
+     */
+    public int getCoalescingWindow() {
+        return coalescingWindow;
+    }
+
+    /**
+     * Set update events coalescing window. Only the latest value of a <code>StatusVariable</code>
+     * that is updated within the window is posted
+     *
+     * @param coalescingWindow window in milliseconds, <code>0</code> - coalescing is off
+     * @throws IllegalArgumentException value is negative
+     */
+    public void setCoalescingWindow(int coalescingWindow) {
+        if (coalescingWindow < 0) {
+            throw new IllegalArgumentException("Coalescing window is invalid: " + coalescingWindow);
+        }
+        this.coalescingWindow = coalescingWindow;
+    }
+
+    /**
+     * Get maximum number of interned <code>StatusVariable</code> paths
+     *
+     * @return pool size
+     */
+    public int getPathPoolSize() {
+        return pathPoolSize;
+    }
+
+    /**
+     * Set maximum number of interned <code>StatusVariable</code> paths
+     *
+     * @param pathPoolSize pool size, <code>0</code> - paths are not interned
+     * @throws IllegalArgumentException value is negative
+     */
+    public void setPathPoolSize(int pathPoolSize) {
+        if (pathPoolSize < 0) {
+            throw new IllegalArgumentException("Path pool size is invalid: " + pathPoolSize);
+        }
+        this.pathPoolSize = pathPoolSize;
+    }
+
+    /**
+     * Get <code>MonitorPermission</code> decisions cache time-to-live
+     *
+     * @return time-to-live in milliseconds, <code>0</code> - decisions are not cached
+     */
+    public int getPermissionCacheTtl() {
+        return permissionCacheTtl;
+    }
+
+    /**
+     * Set <code>MonitorPermission</code> decisions cache time-to-live. All cached decisions are dropped
+     * after this period, so permission table changes are applied with this delay at most. Cache is not created
+     * if <code>MonitorAdmin</code> instances do not check permissions
+     *
+     * @param permissionCacheTtl time-to-live in milliseconds, <code>0</code> - decisions are not cached
+     * @throws IllegalArgumentException value is negative
+     */
+    public void setPermissionCacheTtl(int permissionCacheTtl) {
+        if (permissionCacheTtl < 0) {
+            throw new IllegalArgumentException("Permission cache time-to-live is invalid: " + permissionCacheTtl);
+        }
+        this.permissionCacheTtl = permissionCacheTtl;
+    }
+
+    /**
+     * Get <code>MonitorPermission</code> checks mode
+     *
+     * @return security mode
+     */
+    public SecurityMode getSecurityMode() {
+        return securityMode;
+    }
+
+    /**
+     * Set <code>MonitorPermission</code> checks mode
+     *
+     * @param securityMode security mode
+     * @throws IllegalArgumentException mode is <code>null</code>
+     */
+    public void setSecurityMode(SecurityMode securityMode) {
+        if (securityMode == null) {
+            throw new IllegalArgumentException("Security mode is null");
+        }
+        this.securityMode = securityMode;
+    }
+
+    /**
+     * Get number of threads that run asynchronous <code>Monitorable</code> reads
+     *
+     * @return number of threads
+     */
+    public int getReaderThreads() {
+        return readerThreads;
+    }
+
+    /**
+     * Set number of threads that run asynchronous <code>Monitorable</code> reads
+     *
+     * @param readerThreads number of threads
+     * @throws IllegalArgumentException value is less than 1
+     */
+    public void setReaderThreads(int readerThreads) {
+        if (readerThreads < 1) {
+            throw new IllegalArgumentException("Reader threads count is invalid: " + readerThreads);
+        }
+        this.readerThreads = readerThreads;
+    }
+
+    /**
+     * Get capacity of asynchronous <code>Monitorable</code> reads queue
+     *
+     * @return queue capacity
+     */
+    public int getReaderQueueCapacity() {
+        return readerQueueCapacity;
+    }
+
+    /**
+     * Set capacity of asynchronous <code>Monitorable</code> reads queue. Reads that do not fit
+     * into the queue are rejected
+     *
+     * @param readerQueueCapacity queue capacity
+     * @throws IllegalArgumentException value is less than 1
+     */
+    public void setReaderQueueCapacity(int readerQueueCapacity) {
+        if (readerQueueCapacity < 1) {
+            throw new IllegalArgumentException("Reader queue capacity is invalid: " + readerQueueCapacity);
+        }
+        this.readerQueueCapacity = readerQueueCapacity;
+    }
+
+    /**
+     * Get maximum number of queued and running asynchronous reads of one <code>Monitorable</code>
+     *
+     * @return number of reads
+     */
+    public int getReaderMonitorableReads() {
+        return readerMonitorableReads;
+    }
+
+    /**
+     * Set maximum number of queued and running asynchronous reads of one <code>Monitorable</code>.
+     * Extra reads are rejected
+     *
+     * @param readerMonitorableReads number of reads
+     * @throws IllegalArgumentException value is less than 1
+     */
+    public void setReaderMonitorableReads(int readerMonitorableReads) {
+        if (readerMonitorableReads < 1) {
+            throw new IllegalArgumentException("Reader Monitorable reads count is invalid: " + readerMonitorableReads);
+        }
+        this.readerMonitorableReads = readerMonitorableReads;
+    }
+
+    /**
+     * Get time that unhealthy <code>Monitorable</code> calls are rejected
+     *
+     * @return period in milliseconds, <code>0</code> - circuit breakers are off
+     */
+    public int getBreakerOpenPeriod() {
+        return breakerOpenPeriod;
+    }
+
+    /**
+     * Set time that unhealthy <code>Monitorable</code> calls are rejected before a trial call
+     *
+     * @param breakerOpenPeriod period in milliseconds, <code>0</code> - circuit breakers are off
+     * @throws IllegalArgumentException value is negative
+     */
+    public void setBreakerOpenPeriod(int breakerOpenPeriod) {
+        if (breakerOpenPeriod < 0) {
+            throw new IllegalArgumentException("Breaker open period is invalid: " + breakerOpenPeriod);
+        }
+        this.breakerOpenPeriod = breakerOpenPeriod;
+    }
+
+    /**
+     * Get average <code>Monitorable</code> error rate that opens circuit breaker
+     *
+     * @return error rate in percents
+     */
+    public int getBreakerErrorRate() {
+        return breakerErrorRate;
+    }
+
+    /**
+     * Set average <code>Monitorable</code> error rate that opens circuit breaker
+     *
+     * @param breakerErrorRate error rate in percents
+     * @throws IllegalArgumentException value is not in 1..100 range
+     */
+    public void setBreakerErrorRate(int breakerErrorRate) {
+        if (breakerErrorRate < 1 || breakerErrorRate > 100) {
+            throw new IllegalArgumentException("Breaker error rate is invalid: " + breakerErrorRate);
+        }
+        this.breakerErrorRate = breakerErrorRate;
+    }
+
+    /**
+     * Get average <code>Monitorable</code> read latency that opens circuit breaker
+     *
+     * @return latency in milliseconds
+     */
+    public int getBreakerLatency() {
+        return breakerLatency;
+    }
+
+    /**
+     * Set average <code>Monitorable</code> read latency that opens circuit breaker
+     *
+     * @param breakerLatency latency in milliseconds
+     * @throws IllegalArgumentException value is less than 1
+     */
+    public void setBreakerLatency(int breakerLatency) {
+        if (breakerLatency < 1) {
+            throw new IllegalArgumentException("Breaker latency is invalid: " + breakerLatency);
+        }
+        this.breakerLatency = breakerLatency;
+    }
+
+    /**
+     * Check if events carry typed <code>StatusVariable</code> values
+     *
+     * @return <code>true</code> - value is posted with its native type together with timestamp,
+     *         <code>false</code> - value is posted as <code>String</code>
+     */
+    public boolean isTypedEvents() {
+        return typedEvents;
+    }
+
+    /**
+     * Switch typed events mode on/off
+     *
+     * @param typedEvents <code>true</code> - post typed values and timestamps
+     */
+    public void setTypedEvents(boolean typedEvents) {
+        this.typedEvents = typedEvents;
+    }
+
+    /**
+     * Get topics of <code>StatusVariable</code> events
+     *
+     * @return topic scheme
+     */
+    public TopicScheme getEventTopics() {
+        return eventTopics;
+    }
+
+    /**
+     * Set topics of <code>StatusVariable</code> events
+     *
+     * @param eventTopics topic scheme
+     * @throws IllegalArgumentException scheme is <code>null</code>
+     */
+    public void setEventTopics(TopicScheme eventTopics) {
+        if (eventTopics == null) {
+            throw new IllegalArgumentException("Event topics scheme is null");
+        }
+        this.eventTopics = eventTopics;
+    }
+
+    private static <T extends Enum<T>> T getEnum(BundleContext bc, LogVisitor logVisitor, String key, T defaultValue) {
+        String value = bc.getProperty(key);
+        if (value != null) {
+            try {
+                return Enum.valueOf(defaultValue.getDeclaringClass(), value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logVisitor.warning(String.format("Invalid %s value: %s. Default value is used: %s", key, value, defaultValue), null);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static int getInt(BundleContext bc, LogVisitor logVisitor, String key, int defaultValue, int minValue) {
+        String value = bc.getProperty(key);
+        if (value != null) {
+            try {
+                int result = Integer.parseInt(value.trim());
+                if (result >= minValue) {
+                    return result;
+                }
+            } catch (NumberFormatException e) {
+                // use default value
+            }
+            logVisitor.warning(String.format("Invalid %s value: %s. Default value is used: %d", key, value, defaultValue), null);
+        }
+        return defaultValue;
+    }
+}
@@ -28,15 +28,25 @@ import org.osgi.framework.ServiceRegistration;
 public class MonitorAdminFactory implements ServiceFactory {
     private final LogVisitor logVisitor;
     private final MonitorAdminCommon common;
+    private final SecurityMode securityMode;
 
     public MonitorAdminFactory(LogVisitor logVisitor, MonitorAdminCommon common) {
+        this(logVisitor, common, MonitorAdminConfiguration.DEFAULT_SECURITY_MODE);
+    }
+
+    public MonitorAdminFactory(LogVisitor logVisitor, MonitorAdminCommon common, SecurityMode securityMode) {
         this.logVisitor = logVisitor;
         this.common = common;
+        this.securityMode = securityMode;
     }
 
     public Object getService(Bundle bundle, ServiceRegistration serviceRegistration) {
         logVisitor.debug(String.format("Bind MonitorAdmin instance to %s bundle", bundle.getSymbolicName()), null);
-        return new MonitorAdminImpl(logVisitor, common, bundle);
+        if (securityMode.isSecured()) {
+            return new MonitorAdminImpl(logVisitor, common, bundle);
+        } else {
+            return new UnsecuredMonitorAdminImpl(logVisitor, common, bundle);
+        }
     }
 
     public void ungetService(Bundle bundle, ServiceRegistration serviceRegistration, Object o) {
@@ -16,6 +16,13 @@
 
 package org.ops4j.pax.monitoradmin;
 
+import org.ops4j.pax.monitoradmin.api.ExtendedMonitorAdmin;
+import org.ops4j.pax.monitoradmin.api.ExtendedMonitoringJob;
+import org.ops4j.pax.monitoradmin.api.MissedTickPolicy;
+import org.ops4j.pax.monitoradmin.api.MonitorableHealth;
+import org.ops4j.pax.monitoradmin.api.MonitorableUnavailableException;
+import org.ops4j.pax.monitoradmin.api.ReadResult;
+import org.ops4j.pax.monitoradmin.api.ReadStatus;
 import org.ops4j.pax.monitoradmin.job.ScheduledMonitoringJob;
 import org.ops4j.pax.monitoradmin.job.SubscriptionMonitoringJob;
 import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
@@ -26,13 +33,20 @@ import org.osgi.framework.ServiceReference;
 import org.osgi.service.monitor.*;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * MonitorAdmin implementation
  *
  * @author dmytro.pishchukhin
  */
-public class MonitorAdminImpl implements MonitorAdmin {
+public class MonitorAdminImpl implements ExtendedMonitorAdmin {
     private static final String STARTJOB_PERMISSION_PATTERN = String.format("%s:%%d", MonitorPermission.STARTJOB);
 
     private final LogVisitor logVisitor;
@@ -74,7 +88,7 @@ public class MonitorAdminImpl implements MonitorAdmin {
             throws IllegalArgumentException, SecurityException {
         logVisitor.debug("ENTRY: getStatusVariable: " + path, null);
         try {
-            StatusVariablePath statusVariablePath = new StatusVariablePath(path);
+            StatusVariablePath statusVariablePath = common.getStatusVariablePath(path);
             ServiceReference serviceReference = common.findMonitorableReferenceById(statusVariablePath.getMonitorableId());
 
             checkPermissions(statusVariablePath, serviceReference, MonitorPermission.PUBLISH, MonitorPermission.READ);
@@ -85,6 +99,261 @@ public class MonitorAdminImpl implements MonitorAdmin {
         }
     }
 
+    public ReadResult[] readStatusVariables(String[] paths) throws IllegalArgumentException {
+        logVisitor.debug("ENTRY: readStatusVariables", null);
+        try {
+            if (paths == null) {
+                throw new IllegalArgumentException("Paths are null");
+            }
+            ReadResult[] results = new ReadResult[paths.length];
+            StatusVariablePath[] statusVariablePaths = new StatusVariablePath[paths.length];
+            Map<String, List<Integer>> monitorablePaths = groupPaths(paths, statusVariablePaths, results);
+            for (Map.Entry<String, List<Integer>> entry : monitorablePaths.entrySet()) {
+                ServiceReference serviceReference = findMonitorableReference(entry.getKey());
+                for (int i : entry.getValue()) {
+                    results[i] = readStatusVariable(paths[i], statusVariablePaths[i], serviceReference);
+                }
+            }
+            return results;
+        } finally {
+            logVisitor.debug("EXIT: readStatusVariables", null);
+        }
+    }
+
+    public Future<StatusVariable> getStatusVariableAsync(String path)
+            throws IllegalArgumentException, SecurityException, RejectedExecutionException {
+        logVisitor.debug("ENTRY: getStatusVariableAsync: " + path, null);
+        try {
+            final StatusVariablePath statusVariablePath = common.getStatusVariablePath(path);
+            final ServiceReference serviceReference = common.findMonitorableReferenceById(statusVariablePath.getMonitorableId());
+
+            checkPermissions(statusVariablePath, serviceReference, MonitorPermission.PUBLISH, MonitorPermission.READ);
+
+            try {
+                return common.submitRead(statusVariablePath.getMonitorableId(), new Callable<StatusVariable>() {
+                    public StatusVariable call() throws Exception {
+                        return common.readStatusVariable(serviceReference, statusVariablePath.getStatusVariableId());
+                    }
+                });
+            } catch (MonitorableUnavailableException e) {
+                throw new RejectedExecutionException(e.getMessage());
+            }
+        } finally {
+            logVisitor.debug("EXIT: getStatusVariableAsync: " + path, null);
+        }
+    }
+
+    public ReadResult[] readStatusVariables(final String[] paths, long timeout, TimeUnit unit)
+            throws IllegalArgumentException {
+        logVisitor.debug("ENTRY: readStatusVariables: " + timeout + " " + unit, null);
+        try {
+            if (paths == null) {
+                throw new IllegalArgumentException("Paths are null");
+            }
+            if (unit == null) {
+                throw new IllegalArgumentException("Timeout unit is null");
+            }
+            if (timeout < 0) {
+                throw new IllegalArgumentException("Timeout is invalid: " + timeout);
+            }
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            ReadResult[] results = new ReadResult[paths.length];
+            final StatusVariablePath[] statusVariablePaths = new StatusVariablePath[paths.length];
+            Map<String, List<Integer>> monitorablePaths = groupPaths(paths, statusVariablePaths, results);
+
+            // results are set by the reads pool, late results of cancelled reads are ignored
+            final AtomicReferenceArray<ReadResult> readResults = new AtomicReferenceArray<ReadResult>(results);
+            Map<Future<?>, List<Integer>> reads = new LinkedHashMap<Future<?>, List<Integer>>();
+            for (final Map.Entry<String, List<Integer>> entry : monitorablePaths.entrySet()) {
+                try {
+                    reads.put(common.submitRead(entry.getKey(), new Callable<Object>() {
+                        public Object call() throws Exception {
+                            ServiceReference serviceReference = findMonitorableReference(entry.getKey());
+                            for (int i : entry.getValue()) {
+                                readResults.compareAndSet(i, null,
+                                        readStatusVariable(paths[i], statusVariablePaths[i], serviceReference));
+                            }
+                            return null;
+                        }
+                    }), entry.getValue());
+                } catch (MonitorableUnavailableException e) {
+                    // earlier reads of the Monitorable are still in progress
+                    for (int i : entry.getValue()) {
+                        readResults.set(i, new ReadResult(paths[i], ReadStatus.UNAVAILABLE, null));
+                    }
+                } catch (RejectedExecutionException e) {
+                    logVisitor.warning("Unable to read Monitorable: " + entry.getKey(), e);
+                    for (int i : entry.getValue()) {
+                        readResults.set(i, new ReadResult(paths[i], ReadStatus.ERROR, null));
+                    }
+                }
+            }
+            awaitReads(reads, deadline, paths, readResults);
+
+            for (int i = 0; i < paths.length; i++) {
+                results[i] = readResults.get(i);
+            }
+            return results;
+        } finally {
+            logVisitor.debug("EXIT: readStatusVariables: " + timeout + " " + unit, null);
+        }
+    }
+
+    public MonitorableHealth[] getMonitorableHealth() {
+        return common.getMonitorableHealth();
+    }
+
+    /**
+     * Wait for reads until deadline. Paths of reads that are not completed by the deadline
+     * get {@link ReadStatus#TIMEOUT} status and reads are cancelled
+     *
+     * @param reads       reads futures and their path indexes
+     * @param deadline    deadline in <code>System.nanoTime()</code> scale
+     * @param paths       requested paths
+     * @param readResults read results
+     */
+    private void awaitReads(Map<Future<?>, List<Integer>> reads, long deadline, String[] paths,
+                            AtomicReferenceArray<ReadResult> readResults) {
+        boolean interrupted = false;
+        for (Map.Entry<Future<?>, List<Integer>> read : reads.entrySet()) {
+            if (!interrupted) {
+                try {
+                    read.getKey().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    logVisitor.warning("Unable to read Monitorable", e.getCause());
+                } catch (TimeoutException e) {
+                    // read is cancelled below
+                }
+            }
+            for (int i : read.getValue()) {
+                readResults.compareAndSet(i, null, new ReadResult(paths[i],
+                        read.getKey().isDone() ? ReadStatus.ERROR : ReadStatus.TIMEOUT, null));
+            }
+            read.getKey().cancel(true);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Parse paths and group them by Monitorable
+     *
+     * @param paths               requested paths
+     * @param statusVariablePaths parsed paths, is filled by this method
+     * @param results             read results, results of invalid paths are set by this method
+     * @return path indexes grouped by Monitorable Id
+     */
+    private Map<String, List<Integer>> groupPaths(String[] paths, StatusVariablePath[] statusVariablePaths,
+                                                  ReadResult[] results) {
+        Map<String, List<Integer>> monitorablePaths = new LinkedHashMap<String, List<Integer>>();
+        for (int i = 0; i < paths.length; i++) {
+            try {
+                statusVariablePaths[i] = common.getStatusVariablePath(paths[i]);
+            } catch (IllegalArgumentException e) {
+                results[i] = new ReadResult(paths[i], ReadStatus.INVALID_PATH, null);
+                continue;
+            }
+            List<Integer> indexes = monitorablePaths.get(statusVariablePaths[i].getMonitorableId());
+            if (indexes == null) {
+                indexes = new ArrayList<Integer>();
+                monitorablePaths.put(statusVariablePaths[i].getMonitorableId(), indexes);
+            }
+            indexes.add(i);
+        }
+        return monitorablePaths;
+    }
+
+    /**
+     * Find Monitorable service reference of bulk read
+     *
+     * @param monitorableId monitorable Id
+     * @return service reference or <code>null</code> if Monitorable does not exist
+     */
+    private ServiceReference findMonitorableReference(String monitorableId) {
+        try {
+            return common.findMonitorableReferenceById(monitorableId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public ReadResult[] readSnapshot(String pathFilter) throws IllegalArgumentException {
+        logVisitor.debug("ENTRY: readSnapshot: " + pathFilter, null);
+        try {
+            StatusVariablePathFilter filter = new StatusVariablePathFilter(pathFilter);
+
+            List<ReadResult> results = new ArrayList<ReadResult>();
+            for (ServiceReference monitorableReference : common.getMonitorableReferences(filter.getMonitorableIdFilter())) {
+                String pid = (String) monitorableReference.getProperty(Constants.SERVICE_PID);
+                String[] statusVariableNames;
+                try {
+                    statusVariableNames = common.getStatusVariableNames(monitorableReference);
+                } catch (IllegalArgumentException e) {
+                    // Monitorable is unregistered
+                    continue;
+                }
+                for (String statusVariableName : statusVariableNames) {
+                    if (filter.match(pid, statusVariableName)) {
+                        String path = common.getStatusVariablePath(pid, statusVariableName).getPath();
+                        if (isPermitted(monitorableReference.getBundle(), path, MonitorPermission.PUBLISH)
+                                && isPermitted(consumer, path, MonitorPermission.READ)) {
+                            try {
+                                results.add(new ReadResult(path, ReadStatus.OK,
+                                        common.readStatusVariable(monitorableReference, statusVariableName)));
+                            } catch (IllegalArgumentException e) {
+                                // StatusVariable is not available anymore
+                            } catch (MonitorableUnavailableException e) {
+                                results.add(new ReadResult(path, ReadStatus.UNAVAILABLE, null));
+                            } catch (RuntimeException e) {
+                                logVisitor.warning("Unable to read StatusVariable: " + path, e);
+                                results.add(new ReadResult(path, ReadStatus.ERROR, null));
+                            }
+                        }
+                    }
+                }
+            }
+            return results.toArray(new ReadResult[results.size()]);
+        } finally {
+            logVisitor.debug("EXIT: readSnapshot: " + pathFilter, null);
+        }
+    }
+
+    /**
+     * Read one <code>StatusVariable</code> of bulk read
+     *
+     * @param path               requested path
+     * @param statusVariablePath parsed path
+     * @param serviceReference   Monitorable service reference, <code>null</code> - Monitorable does not exist
+     * @return read result
+     */
+    private ReadResult readStatusVariable(String path, StatusVariablePath statusVariablePath, ServiceReference serviceReference) {
+        if (serviceReference == null) {
+            return new ReadResult(path, ReadStatus.NOT_FOUND, null);
+        }
+        try {
+            if (!common.isPublished(serviceReference, statusVariablePath.getMonitorableId(), statusVariablePath.getStatusVariableId())
+                    || !isPermitted(serviceReference.getBundle(), statusVariablePath.getPath(), MonitorPermission.PUBLISH)) {
+                return new ReadResult(path, ReadStatus.NOT_FOUND, null);
+            }
+            if (!isPermitted(consumer, statusVariablePath.getPath(), MonitorPermission.READ)) {
+                return new ReadResult(path, ReadStatus.ACCESS_DENIED, null);
+            }
+            return new ReadResult(path, ReadStatus.OK,
+                    common.readStatusVariable(serviceReference, statusVariablePath.getStatusVariableId()));
+        } catch (IllegalArgumentException e) {
+            // Monitorable is unregistered or StatusVariable is not available anymore
+            return new ReadResult(path, ReadStatus.NOT_FOUND, null);
+        } catch (MonitorableUnavailableException e) {
+            return new ReadResult(path, ReadStatus.UNAVAILABLE, null);
+        } catch (RuntimeException e) {
+            logVisitor.warning("Unable to read StatusVariable: " + path, e);
+            return new ReadResult(path, ReadStatus.ERROR, null);
+        }
+    }
+
     /**
      * Check permissions for StatusVariable path
      *
@@ -102,15 +371,12 @@ public class MonitorAdminImpl implements MonitorAdmin {
      *                                     with the <code>read</code> action present
      */
     private void checkPermissions(StatusVariablePath statusVariablePath, ServiceReference serviceReference, String producerPermission, String consumerPermission) {
-        String[] variableNames = common.getStatusVariableNames(statusVariablePath.getMonitorableId());
-
-        Collection<String> producerVariables = filterVariableNames(statusVariablePath.getMonitorableId(), variableNames, serviceReference.getBundle(), producerPermission);
-        if (!producerVariables.contains(statusVariablePath.getStatusVariableId())) {
+        if (!common.isPublished(serviceReference, statusVariablePath.getMonitorableId(), statusVariablePath.getStatusVariableId())
+                || !isPermitted(serviceReference.getBundle(), statusVariablePath.getPath(), producerPermission)) {
             throw new IllegalArgumentException(statusVariablePath.getPath() + " StatusVariable is unavailable");
         }
 
-        Collection<String> consumerVariables = filterVariableNames(statusVariablePath.getMonitorableId(), variableNames, consumer, consumerPermission);
-        if (!consumerVariables.contains(statusVariablePath.getStatusVariableId())) {
+        if (!isPermitted(consumer, statusVariablePath.getPath(), consumerPermission)) {
             throw new SecurityException(consumerPermission + " permissions not set for StatusVariable: " + statusVariablePath.getPath());
         }
     }
@@ -142,7 +408,7 @@ public class MonitorAdminImpl implements MonitorAdmin {
             throws IllegalArgumentException, SecurityException {
         logVisitor.debug("ENTRY: getDescription: " + path, null);
         try {
-            StatusVariablePath statusVariablePath = new StatusVariablePath(path);
+            StatusVariablePath statusVariablePath = common.getStatusVariablePath(path);
             ServiceReference serviceReference = common.findMonitorableReferenceById(statusVariablePath.getMonitorableId());
 
             checkPermissions(statusVariablePath, serviceReference, MonitorPermission.PUBLISH, MonitorPermission.READ);
@@ -202,12 +468,12 @@ public class MonitorAdminImpl implements MonitorAdmin {
      * @param permissionAction <code>MonitorPermission</code> action
      * @return filtered collection of <code>StatusVariable</code> names
      */
-    private Collection<String> filterVariableNames(String pid, String[] variableNames, Bundle bundle, String permissionAction) {
+    protected Collection<String> filterVariableNames(String pid, String[] variableNames, Bundle bundle, String permissionAction) {
         List<String> result = new ArrayList<String>();
         if (bundle != null) {
             for (String variableName : variableNames) {
                 try {
-                    if (bundle.hasPermission(new MonitorPermission(String.format(MonitorAdminCommon.PATH_PATERN, pid, variableName), permissionAction))) {
+                    if (isPermitted(bundle, common.getStatusVariablePath(pid, variableName).getPath(), permissionAction)) {
                         result.add(variableName);
                     }
                 } catch (IllegalArgumentException e) {
@@ -220,6 +486,46 @@ public class MonitorAdminImpl implements MonitorAdmin {
         return result;
     }
 
+    /**
+     * Check <code>MonitorPermission</code> of <code>Bundle</code> for one <code>StatusVariable</code>
+     *
+     * @param bundle           <code>Bundle</code> for permission check, <code>null</code> - all permissions
+     *                         are granted
+     * @param path             <code>StatusVariable</code> path
+     * @param permissionAction <code>MonitorPermission</code> action
+     * @return <code>true</code> - bundle has permission, <code>false</code> - bundle has no permission or
+     *         permission check failed
+     */
+    protected boolean isPermitted(Bundle bundle, String path, String permissionAction) {
+        if (bundle == null) {
+            return true;
+        }
+        try {
+            return hasPermission(bundle, path, permissionAction);
+        } catch (IllegalArgumentException e) {
+            logVisitor.debug("Unable to check permission", e);
+            return false;
+        }
+    }
+
+    /**
+     * Check <code>MonitorPermission</code> of <code>Bundle</code>. Decision is taken from the permission cache
+     * if it is enabled
+     *
+     * @param bundle           <code>Bundle</code> for permission check
+     * @param path             <code>StatusVariable</code> path
+     * @param permissionAction <code>MonitorPermission</code> action
+     * @return <code>true</code> - bundle has permission
+     * @throws IllegalArgumentException path or action is invalid
+     */
+    private boolean hasPermission(Bundle bundle, String path, String permissionAction) throws IllegalArgumentException {
+        PermissionCache permissionCache = common.getPermissionCache();
+        if (permissionCache != null) {
+            return permissionCache.hasPermission(bundle, path, permissionAction);
+        }
+        return bundle.hasPermission(new MonitorPermission(path, permissionAction));
+    }
+
     /**
      * Returns the <code>StatusVariable</code> objects published by a
      * <code>Monitorable</code> instance. The <code>StatusVariables</code>
@@ -356,7 +662,7 @@ public class MonitorAdminImpl implements MonitorAdmin {
             throws IllegalArgumentException, SecurityException {
         logVisitor.debug("ENTRY: resetStatusVariable: " + path, null);
         try {
-            StatusVariablePath statusVariablePath = new StatusVariablePath(path);
+            StatusVariablePath statusVariablePath = common.getStatusVariablePath(path);
             ServiceReference serviceReference = common.findMonitorableReferenceById(statusVariablePath.getMonitorableId());
 
             checkPermissions(statusVariablePath, serviceReference, MonitorPermission.PUBLISH, MonitorPermission.RESET);
@@ -411,25 +717,30 @@ public class MonitorAdminImpl implements MonitorAdmin {
         try {
             StatusVariablePathFilter filter = new StatusVariablePathFilter(path);
 
-            Set<String> paths = new TreeSet<String>();
+            Map<String, List<String>> statusVariables = new HashMap<String, List<String>>();
 
             ServiceReference[] monitorableReferences = common.getMonitorableReferences(filter.getMonitorableIdFilter());
             for (ServiceReference monitorableReference : monitorableReferences) {
                 String pid = (String) monitorableReference.getProperty(Constants.SERVICE_PID);
                 String[] statusVariableNames = common.getStatusVariableNames(pid);
+                List<String> ids = null;
                 for (String statusVariableName : statusVariableNames) {
                     if (filter.match(pid, statusVariableName)) {
-                        checkPermissions(new StatusVariablePath(pid, statusVariableName), monitorableReference,
+                        checkPermissions(common.getStatusVariablePath(pid, statusVariableName), monitorableReference,
                                 MonitorPermission.PUBLISH, MonitorPermission.SWITCHEVENTS);
-                        paths.add(String.format(MonitorAdminCommon.PATH_PATERN, pid, statusVariableName));
+                        if (ids == null) {
+                            ids = new ArrayList<String>();
+                            statusVariables.put(pid, ids);
+                        }
+                        ids.add(statusVariableName);
                     }
                 }
             }
 
-            if (paths.isEmpty()) {
+            if (statusVariables.isEmpty()) {
                 throw new IllegalArgumentException(String.format("%s does not point any existing StatusVariables", path));
             }
-            common.switchEvents(paths, on);
+            common.switchEvents(statusVariables, on);
         } finally {
             logVisitor.debug("EXIT: switchEvents: " + path + ", " + on, null);
         }
@@ -496,14 +807,7 @@ public class MonitorAdminImpl implements MonitorAdmin {
             if (count < 0) {
                 throw new IllegalArgumentException("Count is invalid: " + count);
             }
-            for (String path : statusVariables) {
-                StatusVariablePath statusVariablePath = new StatusVariablePath(path);
-                ServiceReference monitorableReference = common.findMonitorableReferenceById(statusVariablePath.getMonitorableId());
-                String pid = (String) monitorableReference.getProperty(Constants.SERVICE_PID);
-
-                checkPermissions(new StatusVariablePath(pid, statusVariablePath.getStatusVariableId()), monitorableReference,
-                        MonitorPermission.PUBLISH, String.format(STARTJOB_PERMISSION_PATTERN, schedule));
-            }
+            checkScheduledJobPermissions(statusVariables, schedule);
             ScheduledMonitoringJob job = new ScheduledMonitoringJob(common, logVisitor, initiator,
                     statusVariables, schedule, count);
             common.addJob(job);
@@ -514,6 +818,73 @@ public class MonitorAdminImpl implements MonitorAdmin {
         }
     }
 
+    public ExtendedMonitoringJob startScheduledJob(String initiator, String[] statusVariables, long period,
+                                                   TimeUnit unit, int count, MissedTickPolicy policy)
+            throws IllegalArgumentException, SecurityException {
+        return startScheduledJob(initiator, statusVariables, period, unit, count, policy, false);
+    }
+
+    public ExtendedMonitoringJob startScheduledJob(String initiator, String[] statusVariables, long period,
+                                                   TimeUnit unit, int count, MissedTickPolicy policy, boolean batch)
+            throws IllegalArgumentException, SecurityException {
+        logVisitor.debug("ENTRY: startScheduledJob: " + initiator, null);
+        try {
+            if (initiator == null) {
+                throw new IllegalArgumentException("Initiator is null");
+            }
+            if (statusVariables == null) {
+                throw new IllegalArgumentException("StatusVariables are null");
+            }
+            if (unit == null) {
+                throw new IllegalArgumentException("Period unit is null");
+            }
+            if (policy == null) {
+                throw new IllegalArgumentException("MissedTickPolicy is null");
+            }
+            if (unit.toMillis(period) < 1) {
+                throw new IllegalArgumentException("Period is invalid: " + period + " " + unit);
+            }
+            if (count < 0) {
+                throw new IllegalArgumentException("Count is invalid: " + count);
+            }
+            // MonitorPermission minimal sampling interval is defined in seconds
+            checkScheduledJobPermissions(statusVariables, ScheduledMonitoringJob.toSchedule(unit.toNanos(period)));
+            ScheduledMonitoringJob job = new ScheduledMonitoringJob(common, logVisitor, initiator,
+                    statusVariables, period, unit, count, policy, batch);
+            common.addJob(job);
+            logVisitor.info("New Fixed-Rate Scheduled Job is started: " + initiator, null);
+            return job;
+        } finally {
+            logVisitor.debug("EXIT: startScheduledJob: " + initiator, null);
+        }
+    }
+
+    /**
+     * Check scheduled job permissions for all StatusVariables
+     *
+     * @param statusVariables StatusVariable paths
+     * @param schedule        the time in seconds between two measurements
+     * @throws java.lang.IllegalArgumentException
+     *                                     if the list of
+     *                                     <code>StatusVariable</code> names contains an invalid or
+     *                                     non-existing <code>StatusVariable</code>
+     * @throws java.lang.SecurityException if the caller does not hold
+     *                                     <code>MonitorPermission</code> for all the specified
+     *                                     <code>StatusVariable</code>s, with the <code>startjob</code>
+     *                                     action present, or if the permission does not allow starting the
+     *                                     job with the given frequency
+     */
+    private void checkScheduledJobPermissions(String[] statusVariables, int schedule) {
+        for (String path : statusVariables) {
+            StatusVariablePath statusVariablePath = common.getStatusVariablePath(path);
+            ServiceReference monitorableReference = common.findMonitorableReferenceById(statusVariablePath.getMonitorableId());
+            String pid = (String) monitorableReference.getProperty(Constants.SERVICE_PID);
+
+            checkPermissions(common.getStatusVariablePath(pid, statusVariablePath.getStatusVariableId()), monitorableReference,
+                    MonitorPermission.PUBLISH, String.format(STARTJOB_PERMISSION_PATTERN, schedule));
+        }
+    }
+
     /**
      * Starts a change based <code>MonitoringJob</code> with the parameters
      * provided. Monitoring events will be sent when the
@@ -564,7 +935,7 @@ public class MonitorAdminImpl implements MonitorAdmin {
                 throw new IllegalArgumentException("Count is invalid: " + count);
             }
             for (String path : statusVariables) {
-                StatusVariablePath statusVariablePath = new StatusVariablePath(path);
+                StatusVariablePath statusVariablePath = common.getStatusVariablePath(path);
                 ServiceReference monitorableReference = common.findMonitorableReferenceById(statusVariablePath.getMonitorableId());
                 String pid = (String) monitorableReference.getProperty(Constants.SERVICE_PID);
 
@@ -572,7 +943,7 @@ public class MonitorAdminImpl implements MonitorAdmin {
                     throw new IllegalArgumentException("StatusVariable: " + path + " does not support notifications");
                 }
 
-                checkPermissions(new StatusVariablePath(pid, statusVariablePath.getStatusVariableId()), monitorableReference,
+                checkPermissions(common.getStatusVariablePath(pid, statusVariablePath.getStatusVariableId()), monitorableReference,
                         MonitorPermission.PUBLISH, MonitorPermission.STARTJOB);
             }
             SubscriptionMonitoringJob job = new SubscriptionMonitoringJob(common, logVisitor, initiator, statusVariables, count);
@@ -607,18 +978,7 @@ public class MonitorAdminImpl implements MonitorAdmin {
             List<MonitoringJob> runningJobs = common.getRunningJobs();
             List<MonitoringJob> result = new ArrayList<MonitoringJob>();
             for (MonitoringJob runningJob : runningJobs) {
-                String[] statusVariableNames = runningJob.getStatusVariableNames();
-                String action = String.format(STARTJOB_PERMISSION_PATTERN, runningJob.getSchedule());
-                boolean hasPermissions = true;
-                if (consumer != null) {
-                    for (String statusVariableName : statusVariableNames) {
-                        if (!consumer.hasPermission(new MonitorPermission(statusVariableName, action))) {
-                            hasPermissions = false;
-                            break;
-                        }
-                    }
-                }
-                if (hasPermissions) {
+                if (isVisible(runningJob)) {
                     result.add(runningJob);
                 }
             }
@@ -627,4 +987,24 @@ public class MonitorAdminImpl implements MonitorAdmin {
             logVisitor.debug("EXIT: getRunningJobs", null);
         }
     }
+
+    /**
+     * Check if running job is visible to consumer: consumer should have <code>startjob</code>
+     * <code>MonitorPermission</code> with job schedule for all job <code>StatusVariable</code>s
+     *
+     * @param job running job
+     * @return <code>true</code> - job is visible
+     */
+    protected boolean isVisible(MonitoringJob job) {
+        if (consumer == null) {
+            return true;
+        }
+        String action = String.format(STARTJOB_PERMISSION_PATTERN, job.getSchedule());
+        for (String statusVariableName : job.getStatusVariableNames()) {
+            if (!hasPermission(consumer, statusVariableName, action)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin;
+
+import org.ops4j.pax.monitoradmin.api.MonitorableUnavailableException;
+import org.ops4j.pax.monitoradmin.util.DaemonThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of asynchronous <code>Monitorable</code> reads. Number of reads of one <code>Monitorable</code>
+ * that are queued or running is limited, extra reads are rejected instead of being queued, so a slow
+ * <code>Monitorable</code> cannot occupy the whole pool.
+ * <p/>
+ * Read that is cancelled while running could still pin its thread if the <code>Monitorable</code> ignores
+ * interrupts. The pool is grown by one thread for every such read until the read returns, so healthy
+ * <code>Monitorable</code>s are read even if more <code>Monitorable</code>s hang than the pool has threads.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class MonitorableReadPool {
+    private final int threads;
+    private final int readsPerMonitorable;
+    private final ThreadPoolExecutor executor;
+    /**
+     * Monitorable Id to number of queued and running reads index
+     */
+    private final ConcurrentMap<String, AtomicInteger> monitorableReads = new ConcurrentHashMap<String, AtomicInteger>();
+    /**
+     * Number of cancelled reads that are still running. Guarded by pool lock
+     */
+    private int hungReads;
+
+    /**
+     * Initialize pool
+     *
+     * @param threads             number of threads
+     * @param queueCapacity       capacity of reads queue
+     * @param readsPerMonitorable maximum number of queued and running reads of one <code>Monitorable</code>
+     */
+    public MonitorableReadPool(int threads, int queueCapacity, int readsPerMonitorable) {
+        this.threads = threads;
+        this.readsPerMonitorable = readsPerMonitorable;
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), new DaemonThreadFactory("MonitorAdmin Reader"));
+    }
+
+    /**
+     * Submit <code>Monitorable</code> read
+     *
+     * @param monitorableId monitorable Id
+     * @param read          read task
+     * @return read result future
+     * @throws MonitorableUnavailableException <code>Monitorable</code> has too many reads in progress
+     * @throws RejectedExecutionException      reads queue is full
+     */
+    public <T> Future<T> submit(String monitorableId, Callable<T> read)
+            throws MonitorableUnavailableException, RejectedExecutionException {
+        AtomicInteger reads = monitorableReads.get(monitorableId);
+        if (reads == null) {
+            AtomicInteger newReads = new AtomicInteger();
+            reads = monitorableReads.putIfAbsent(monitorableId, newReads);
+            if (reads == null) {
+                reads = newReads;
+            }
+        }
+        if (reads.incrementAndGet() > readsPerMonitorable) {
+            reads.decrementAndGet();
+            throw new MonitorableUnavailableException("Monitorable has too many reads in progress: " + monitorableId);
+        }
+        ReadTask<T> task = new ReadTask<T>(read, reads);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            reads.decrementAndGet();
+            throw e;
+        }
+        return task;
+    }
+
+    /**
+     * Drop reads counter of departed <code>Monitorable</code>
+     *
+     * @param monitorableId monitorable Id
+     */
+    public void evict(String monitorableId) {
+        monitorableReads.remove(monitorableId);
+    }
+
+    /**
+     * Get current number of pool threads
+     *
+     * @return number of threads
+     */
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    /**
+     * Stop pool threads. Queued reads are discarded
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private synchronized void hungReadStarted() {
+        hungReads++;
+        executor.setMaximumPoolSize(threads + hungReads);
+        executor.setCorePoolSize(threads + hungReads);
+    }
+
+    private synchronized void hungReadFinished() {
+        hungReads--;
+        executor.setCorePoolSize(threads + hungReads);
+        executor.setMaximumPoolSize(threads + hungReads);
+    }
+
+    /**
+     * Read that releases <code>Monitorable</code> reads counter when it is finished or skipped
+     */
+    private class ReadTask<T> extends FutureTask<T> {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int FINISHED = 2;
+        private static final int HUNG = 3;
+
+        private final ReleasingRead<T> read;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private ReadTask(Callable<T> read, AtomicInteger reads) {
+            this(new ReleasingRead<T>(read, reads));
+        }
+
+        private ReadTask(ReleasingRead<T> read) {
+            super(read);
+            this.read = read;
+        }
+
+        @Override
+        public void run() {
+            // cancelled task is run by the pool too, it returns immediately
+            state.compareAndSet(QUEUED, RUNNING);
+            try {
+                super.run();
+            } finally {
+                read.release();
+                if (state.getAndSet(FINISHED) == HUNG) {
+                    hungReadFinished();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && state.compareAndSet(RUNNING, HUNG)) {
+                // thread is released only when the Monitorable returns
+                hungReadStarted();
+            }
+            return cancelled;
+        }
+    }
+
+    /**
+     * Read that releases <code>Monitorable</code> reads counter before its result is visible to the caller
+     */
+    private static class ReleasingRead<T> implements Callable<T> {
+        private final Callable<T> read;
+        private final AtomicInteger reads;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingRead(Callable<T> read, AtomicInteger reads) {
+            this.read = read;
+            this.reads = reads;
+        }
+
+        public T call() throws Exception {
+            try {
+                return read.call();
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                reads.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin;
+
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.monitor.Monitorable;
+import org.osgi.util.tracker.ServiceTracker;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <code>Monitorable</code> service tracker that maintains SERVICE_PID index.
+ * For every SERVICE_PID the index contains the <code>ServiceReference</code> with the highest ranking
+ * (as specified in its Constants.SERVICE_RANKING property). If there is a tie in ranking,
+ * the service with the lowest service ID is used.
+ * <p/>
+ * Index is updated on REGISTERED/MODIFIED/UNREGISTERING service events and is read without locks.
+ * <p/>
+ * <code>Monitorable</code> service objects are acquired once per <code>ServiceReference</code> on first use,
+ * cached and released with <code>ungetService</code> when the service goes away.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class MonitorableTracker extends ServiceTracker {
+    /**
+     * SERVICE_PID to the most suitable <code>ServiceReference</code> index
+     */
+    private final Map<String, ServiceReference> index = new ConcurrentHashMap<String, ServiceReference>();
+    /**
+     * All tracked <code>ServiceReference</code>s grouped by SERVICE_PID. Guarded by itself
+     */
+    private final Map<String, List<ServiceReference>> candidates = new HashMap<String, List<ServiceReference>>();
+    /**
+     * SERVICE_PID under which the <code>ServiceReference</code> is indexed. Guarded by <code>candidates</code>
+     */
+    private final Map<ServiceReference, String> indexedPids = new HashMap<ServiceReference, String>();
+    /**
+     * Acquired <code>Monitorable</code> service objects
+     */
+    private final Map<ServiceReference, Monitorable> services = new ConcurrentHashMap<ServiceReference, Monitorable>();
+    /**
+     * Listener that is notified when the last <code>Monitorable</code> with SERVICE_PID goes away
+     */
+    private volatile DepartureListener departureListener;
+
+    public MonitorableTracker(BundleContext bc) {
+        super(bc, Monitorable.class.getName(), null);
+    }
+
+    /**
+     * Find the most suitable <code>Monitorable</code> <code>ServiceReference</code> by monitorableId
+     *
+     * @param monitorableId monitorable Id
+     * @return <code>ServiceReference</code> or <code>null</code> if service does not exist
+     */
+    public ServiceReference findReference(String monitorableId) {
+        return index.get(monitorableId);
+    }
+
+    /**
+     * Get <code>Monitorable</code> service object. Service is acquired on the first call and cached
+     * until it is unregistered.
+     *
+     * @param reference <code>ServiceReference</code>
+     * @return <code>Monitorable</code> service or <code>null</code> if service is not tracked anymore
+     */
+    public Monitorable getMonitorable(ServiceReference reference) {
+        Monitorable monitorable = services.get(reference);
+        if (monitorable == null) {
+            // acquire service out of the lock, framework could call ServiceFactory
+            monitorable = (Monitorable) context.getService(reference);
+            if (monitorable != null) {
+                boolean release;
+                synchronized (candidates) {
+                    Monitorable cached = services.get(reference);
+                    if (cached != null) {
+                        // concurrent call has already acquired the service
+                        release = true;
+                        monitorable = cached;
+                    } else if (indexedPids.containsKey(reference)) {
+                        release = false;
+                        services.put(reference, monitorable);
+                    } else {
+                        // service was removed concurrently
+                        release = true;
+                        monitorable = null;
+                    }
+                }
+                if (release) {
+                    context.ungetService(reference);
+                }
+            }
+        }
+        return monitorable;
+    }
+
+    /**
+     * Set listener that is notified when the last <code>Monitorable</code> with SERVICE_PID goes away
+     *
+     * @param departureListener listener or <code>null</code>
+     */
+    public void setDepartureListener(DepartureListener departureListener) {
+        this.departureListener = departureListener;
+    }
+
+    @Override
+    public Object addingService(ServiceReference reference) {
+        String pid = getPid(reference);
+        if (pid == null) {
+            // Monitorable without SERVICE_PID is unaddressable - do not track it
+            return null;
+        }
+        synchronized (candidates) {
+            addCandidate(pid, reference);
+        }
+        return reference;
+    }
+
+    @Override
+    public void modifiedService(ServiceReference reference, Object service) {
+        String pid = getPid(reference);
+        String oldPid;
+        boolean departed;
+        synchronized (candidates) {
+            oldPid = removeCandidate(reference);
+            if (pid != null) {
+                addCandidate(pid, reference);
+            }
+            departed = oldPid != null && !index.containsKey(oldPid);
+        }
+        if (departed) {
+            fireDeparted(oldPid);
+        }
+    }
+
+    @Override
+    public void removedService(ServiceReference reference, Object service) {
+        Monitorable monitorable;
+        String pid;
+        boolean departed;
+        synchronized (candidates) {
+            pid = removeCandidate(reference);
+            monitorable = services.remove(reference);
+            departed = pid != null && !index.containsKey(pid);
+        }
+        if (monitorable != null) {
+            context.ungetService(reference);
+        }
+        if (departed) {
+            fireDeparted(pid);
+        }
+    }
+
+    private void fireDeparted(String pid) {
+        DepartureListener listener = departureListener;
+        if (listener != null) {
+            listener.monitorableDeparted(pid);
+        }
+    }
+
+    private void addCandidate(String pid, ServiceReference reference) {
+        List<ServiceReference> references = candidates.get(pid);
+        if (references == null) {
+            references = new ArrayList<ServiceReference>(1);
+            candidates.put(pid, references);
+        }
+        references.add(reference);
+        indexedPids.put(reference, pid);
+        updateIndex(pid, references);
+    }
+
+    private String removeCandidate(ServiceReference reference) {
+        String pid = indexedPids.remove(reference);
+        if (pid != null) {
+            List<ServiceReference> references = candidates.get(pid);
+            references.remove(reference);
+            if (references.isEmpty()) {
+                candidates.remove(pid);
+            }
+            updateIndex(pid, references);
+        }
+        return pid;
+    }
+
+    private void updateIndex(String pid, List<ServiceReference> references) {
+        ServiceReference mostSuitableMonitorable = null;
+        for (ServiceReference reference : references) {
+            if (mostSuitableMonitorable == null ||
+                    mostSuitableMonitorable.compareTo(reference) < 0) {
+                mostSuitableMonitorable = reference;
+            }
+        }
+        if (mostSuitableMonitorable == null) {
+            index.remove(pid);
+        } else {
+            index.put(pid, mostSuitableMonitorable);
+        }
+    }
+
+    private static String getPid(ServiceReference reference) {
+        Object pid = reference.getProperty(Constants.SERVICE_PID);
+        return pid instanceof String ? (String) pid : null;
+    }
+
+    /**
+     * Listener of <code>Monitorable</code> departures
+     */
+    public interface DepartureListener {
+        /**
+         * The last <code>Monitorable</code> with given SERVICE_PID is unregistered or its SERVICE_PID is changed
+         *
+         * @param monitorableId monitorable Id
+         */
+        void monitorableDeparted(String monitorableId);
+    }
+}
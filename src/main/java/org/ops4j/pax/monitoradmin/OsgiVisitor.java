@@ -28,9 +28,10 @@ import org.osgi.service.monitor.Monitorable;
  */
 public interface OsgiVisitor {
     /**
-     * Get <code>Monitorable</code> service by <code>ServiceReference</code>
+     * Get <code>Monitorable</code> service by <code>ServiceReference</code>.
+     * Service object is cached and released when the service is unregistered
      * @param reference <code>ServiceReference</code>
-     * @return <code>Monitorable</code> service
+     * @return <code>Monitorable</code> service or <code>null</code> if service is unregistered
      */
     Monitorable getService(ServiceReference reference);
 
@@ -41,6 +42,15 @@ public interface OsgiVisitor {
      */
     ServiceReference[] findMonitorableReferences(String monitorableId);
 
+    /**
+     * Get the most suitable <code>Monitorable</code> <code>ServiceReference</code> by monitorableId:
+     * the service with the highest ranking or, if there is a tie in ranking,
+     * the service with the lowest service ID
+     * @param monitorableId monitorable Id
+     * @return <code>ServiceReference</code> or <code>null</code>
+     */
+    ServiceReference findMonitorableReference(String monitorableId);
+
     /**
      * Post <code>Event</code> via <code>EventAdmin</code>
      * @param event event
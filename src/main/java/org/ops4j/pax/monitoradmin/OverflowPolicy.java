@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+/**
+ * Policy that is applied when asynchronous updates queue is full
+ *
+ * @author dmytro.pishchukhin
+ */
+public enum OverflowPolicy {
+    /**
+     * Drop the oldest queued update to free space for the new one
+     */
+    DROP_OLDEST,
+    /**
+     * Drop the new update
+     */
+    DROP_NEWEST,
+    /**
+     * Block <code>Monitorable</code> thread until there is free space in the queue
+     */
+    BLOCK
+}
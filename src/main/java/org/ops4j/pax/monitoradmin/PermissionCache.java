@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.osgi.framework.Bundle;
+import org.osgi.service.monitor.MonitorPermission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <code>MonitorPermission</code> decisions cache. Decisions are cached per (bundle, action, path) and
+ * a repeated check costs map lookups instead of a policy evaluation.
+ * <p/>
+ * Bundle decisions are invalidated when the bundle is updated or uninstalled, all decisions are invalidated
+ * when permission admin services change. Framework does not report permission table changes, so all
+ * decisions are also invalidated periodically.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class PermissionCache {
+    /**
+     * Bundle to action to path to decision index
+     */
+    private final Map<Bundle, Map<String, Map<String, Boolean>>> decisions =
+            new ConcurrentHashMap<Bundle, Map<String, Map<String, Boolean>>>();
+    /**
+     * Invalidations counter. Decision that was evaluated concurrently with invalidation is not cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Check if bundle has <code>MonitorPermission</code>
+     *
+     * @param bundle bundle
+     * @param path   permission target
+     * @param action permission action
+     * @return <code>true</code> - bundle has permission
+     * @throws IllegalArgumentException permission target or action is invalid
+     */
+    public boolean hasPermission(Bundle bundle, String path, String action) throws IllegalArgumentException {
+        Map<String, Map<String, Boolean>> bundleDecisions = decisions.get(bundle);
+        if (bundleDecisions != null) {
+            Map<String, Boolean> actionDecisions = bundleDecisions.get(action);
+            if (actionDecisions != null) {
+                Boolean decision = actionDecisions.get(path);
+                if (decision != null) {
+                    return decision;
+                }
+            }
+        }
+        long currentGeneration = generation.get();
+        boolean decision = bundle.hasPermission(new MonitorPermission(path, action));
+        store(bundle, path, action, decision, currentGeneration);
+        return decision;
+    }
+
+    /**
+     * Invalidate decisions of bundle
+     *
+     * @param bundle bundle
+     */
+    public synchronized void invalidate(Bundle bundle) {
+        generation.incrementAndGet();
+        decisions.remove(bundle);
+    }
+
+    /**
+     * Invalidate all decisions
+     */
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        decisions.clear();
+    }
+
+    private synchronized void store(Bundle bundle, String path, String action, boolean decision, long evaluatedGeneration) {
+        if (generation.get() != evaluatedGeneration) {
+            // decisions were invalidated during evaluation
+            return;
+        }
+        Map<String, Map<String, Boolean>> bundleDecisions = decisions.get(bundle);
+        if (bundleDecisions == null) {
+            bundleDecisions = new ConcurrentHashMap<String, Map<String, Boolean>>();
+            decisions.put(bundle, bundleDecisions);
+        }
+        Map<String, Boolean> actionDecisions = bundleDecisions.get(action);
+        if (actionDecisions == null) {
+            actionDecisions = new ConcurrentHashMap<String, Boolean>();
+            bundleDecisions.put(action, actionDecisions);
+        }
+        actionDecisions.put(path, decision);
+    }
+}
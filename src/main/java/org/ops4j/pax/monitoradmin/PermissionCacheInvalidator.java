@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.osgi.framework.*;
+
+/**
+ * Invalidates <code>PermissionCache</code> decisions: decisions of a bundle are dropped when the bundle is
+ * updated or uninstalled, all decisions are dropped when PermissionAdmin or ConditionalPermissionAdmin
+ * service is registered, modified or unregistered.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class PermissionCacheInvalidator implements BundleListener, ServiceListener {
+    /**
+     * Permission admin services filter
+     */
+    private static final String PERMISSION_ADMIN_FILTER = String.format("(|(%s=%s)(%s=%s))",
+            Constants.OBJECTCLASS, "org.osgi.service.permissionadmin.PermissionAdmin",
+            Constants.OBJECTCLASS, "org.osgi.service.condpermadmin.ConditionalPermissionAdmin");
+
+    private final BundleContext bc;
+    private final PermissionCache permissionCache;
+
+    public PermissionCacheInvalidator(BundleContext bc, PermissionCache permissionCache) {
+        this.bc = bc;
+        this.permissionCache = permissionCache;
+    }
+
+    /**
+     * Start listening for bundle and permission admin service events
+     *
+     * @throws InvalidSyntaxException filter is invalid
+     */
+    public void open() throws InvalidSyntaxException {
+        bc.addBundleListener(this);
+        bc.addServiceListener(this, PERMISSION_ADMIN_FILTER);
+    }
+
+    /**
+     * Stop listening for events
+     */
+    public void close() {
+        bc.removeServiceListener(this);
+        bc.removeBundleListener(this);
+    }
+
+    public void bundleChanged(BundleEvent event) {
+        switch (event.getType()) {
+            case BundleEvent.UPDATED:
+            case BundleEvent.UNINSTALLED:
+                permissionCache.invalidate(event.getBundle());
+                break;
+        }
+    }
+
+    public void serviceChanged(ServiceEvent event) {
+        permissionCache.invalidateAll();
+    }
+}
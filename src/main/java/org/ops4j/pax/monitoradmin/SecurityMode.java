@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+/**
+ * <code>MonitorPermission</code> checks mode of <code>MonitorAdmin</code> instances
+ *
+ * @author dmytro.pishchukhin
+ */
+public enum SecurityMode {
+    /**
+     * Permissions are checked if <code>SecurityManager</code> is installed when <code>MonitorAdmin</code>
+     * instance is bound to a bundle
+     */
+    AUTO,
+    /**
+     * Permissions are always checked
+     */
+    ENABLED,
+    /**
+     * Permissions are never checked
+     */
+    DISABLED;
+
+    /**
+     * Check if <code>MonitorPermission</code>s are checked by <code>MonitorAdmin</code> instance that is bound now
+     *
+     * @return <code>true</code> - permissions are checked
+     */
+    public boolean isSecured() {
+        switch (this) {
+            case ENABLED:
+                return true;
+            case DISABLED:
+                return false;
+            default:
+                return System.getSecurityManager() != null;
+        }
+    }
+}
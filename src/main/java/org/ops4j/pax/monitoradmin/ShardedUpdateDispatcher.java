@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin;
+
+import org.ops4j.pax.monitoradmin.util.DaemonThreadFactory;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Asynchronous updates dispatcher that spreads updates over N single-threaded {@link UpdateDispatcher} shards.
+ * Shard is selected by <code>Monitorable</code> Id, so updates of one <code>Monitorable</code> are dispatched
+ * in the reporting order while independent <code>Monitorable</code>s are dispatched in parallel.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class ShardedUpdateDispatcher {
+    private final UpdateDispatcher[] shards;
+
+    public ShardedUpdateDispatcher(MonitorAdminCommon common, LogVisitor logVisitor, int shardsCount, int capacity,
+                                   OverflowPolicy overflowPolicy) {
+        ThreadFactory threadFactory = new DaemonThreadFactory("MonitorAdmin Update Dispatcher");
+        shards = new UpdateDispatcher[shardsCount];
+        for (int i = 0; i < shardsCount; i++) {
+            shards[i] = new UpdateDispatcher(common, logVisitor, capacity, overflowPolicy, threadFactory);
+        }
+    }
+
+    /**
+     * Start shard threads
+     */
+    public void start() {
+        for (UpdateDispatcher shard : shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * Stop shard threads. Queued updates are discarded
+     */
+    public void stop() {
+        for (UpdateDispatcher shard : shards) {
+            shard.stop();
+        }
+    }
+
+    /**
+     * Enqueue update into the <code>Monitorable</code> shard
+     *
+     * @param monitorableId  validated monitorable Id
+     * @param statusVariable StatusVariable
+     */
+    public void enqueue(String monitorableId, StatusVariable statusVariable) {
+        getShard(monitorableId).enqueue(monitorableId, statusVariable);
+    }
+
+    /**
+     * Enqueue batch of updates into the <code>Monitorable</code> shard
+     *
+     * @param monitorableId   validated monitorable Id
+     * @param statusVariables StatusVariables
+     */
+    public void enqueue(String monitorableId, StatusVariable[] statusVariables) {
+        getShard(monitorableId).enqueue(monitorableId, statusVariables);
+    }
+
+    /**
+     * Get number of updates that were dropped by all shards because of queue overflow
+     *
+     * @return dropped updates count
+     */
+    public long getDroppedUpdates() {
+        long dropped = 0;
+        for (UpdateDispatcher shard : shards) {
+            dropped += shard.getDroppedUpdates();
+        }
+        return dropped;
+    }
+
+    /**
+     * Get number of updates that are waiting for dispatching in every shard
+     *
+     * @return queue depths indexed by shard
+     */
+    public int[] getQueueDepths() {
+        int[] depths = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            depths[i] = shards[i].getQueueDepth();
+        }
+        return depths;
+    }
+
+    private UpdateDispatcher getShard(String monitorableId) {
+        if (shards.length == 1) {
+            return shards[0];
+        }
+        // spread String hash bits, like HashMap does
+        int hash = monitorableId.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return shards[(hash & 0x7fffffff) % shards.length];
+    }
+}
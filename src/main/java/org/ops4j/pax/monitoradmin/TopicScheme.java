@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+/**
+ * Topics that <code>StatusVariable</code> events are posted to
+ *
+ * @author dmytro.pishchukhin
+ */
+public enum TopicScheme {
+    /**
+     * Events are posted to the standard <code>org/osgi/service/monitor</code> topic
+     */
+    STANDARD,
+    /**
+     * Every event is posted to the standard topic and to
+     * <code>org/osgi/service/monitor/[Monitorable_ID]/[StatusVariable_ID]</code> topic,
+     * so <code>EventHandler</code>s may also subscribe to one <code>Monitorable</code> or <code>StatusVariable</code>
+     */
+    BOTH
+}
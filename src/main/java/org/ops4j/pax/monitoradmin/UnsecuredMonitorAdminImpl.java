@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.osgi.framework.Bundle;
+import org.osgi.service.monitor.MonitoringJob;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * <code>MonitorAdmin</code> implementation that does not check <code>MonitorPermission</code>s.
+ * Is used when there is no <code>SecurityManager</code>, so <code>Bundle.hasPermission</code>
+ * always grants permissions anyway
+ *
+ * @author dmytro.pishchukhin
+ */
+public class UnsecuredMonitorAdminImpl extends MonitorAdminImpl {
+    /**
+     * Create MonitorAdmin instance for bundle-consumer
+     *
+     * @param logVisitor log visitor
+     * @param common     MonitorAdmin common actions
+     * @param consumer   bundle-consumer
+     */
+    public UnsecuredMonitorAdminImpl(LogVisitor logVisitor, MonitorAdminCommon common, Bundle consumer) {
+        super(logVisitor, common, consumer);
+    }
+
+    @Override
+    protected Collection<String> filterVariableNames(String pid, String[] variableNames, Bundle bundle, String permissionAction) {
+        return Arrays.asList(variableNames);
+    }
+
+    @Override
+    protected boolean isPermitted(Bundle bundle, String path, String permissionAction) {
+        return true;
+    }
+
+    @Override
+    protected boolean isVisible(MonitoringJob job) {
+        return true;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.ops4j.pax.monitoradmin.util.EventSwitches;
+import org.ops4j.pax.monitoradmin.util.StatusVariablePathPool;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Coalesces <code>StatusVariable</code> update events. The first update of a path opens a window,
+ * updates within the window only replace the pending value, and one event with the latest
+ * value is posted when the window expires.
+ * <p/>
+ * Event switch and <code>Monitorable</code> registration are checked again when the window expires: events
+ * switched off during the window and updates of departed <code>Monitorable</code>s are not posted.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class UpdateCoalescer {
+    private final MonitorAdminCommon common;
+    private final LogVisitor logVisitor;
+    private final ScheduledExecutorService scheduler;
+    private final EventSwitches eventSwitches;
+    private final StatusVariablePathPool.MonitorableRegistry registry;
+    private final long windowMillis;
+    /**
+     * Monitorable Id to StatusVariable Id to pending update index
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Window>> windows =
+            new ConcurrentHashMap<String, ConcurrentHashMap<String, Window>>();
+
+    public UpdateCoalescer(MonitorAdminCommon common, LogVisitor logVisitor, ScheduledExecutorService scheduler,
+                           EventSwitches eventSwitches, StatusVariablePathPool.MonitorableRegistry registry,
+                           long windowMillis) {
+        this.common = common;
+        this.logVisitor = logVisitor;
+        this.scheduler = scheduler;
+        this.eventSwitches = eventSwitches;
+        this.registry = registry;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Register update. Event is posted when the path window expires
+     *
+     * @param monitorableId  validated monitorable Id
+     * @param statusVariable the <code>StatusVariable</code> that has changed
+     */
+    public void update(String monitorableId, StatusVariable statusVariable) {
+        ConcurrentHashMap<String, Window> monitorableWindows = windows.get(monitorableId);
+        if (monitorableWindows == null) {
+            monitorableWindows = new ConcurrentHashMap<String, Window>();
+            ConcurrentHashMap<String, Window> existing = windows.putIfAbsent(monitorableId, monitorableWindows);
+            if (existing != null) {
+                monitorableWindows = existing;
+            }
+        }
+        Window window = monitorableWindows.get(statusVariable.getID());
+        if (window == null) {
+            window = new Window(monitorableId);
+            Window existing = monitorableWindows.putIfAbsent(statusVariable.getID(), window);
+            if (existing != null) {
+                window = existing;
+            }
+        }
+        window.latest.set(statusVariable);
+        if (window.open.compareAndSet(false, true)) {
+            scheduler.schedule(window, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Discard pending updates of <code>Monitorable</code>
+     *
+     * @param monitorableId monitorable Id
+     */
+    public void clear(String monitorableId) {
+        ConcurrentHashMap<String, Window> monitorableWindows = windows.remove(monitorableId);
+        if (monitorableWindows != null) {
+            for (Window window : monitorableWindows.values()) {
+                window.latest.set(null);
+            }
+        }
+    }
+
+    /**
+     * Coalescing window of one path
+     */
+    private class Window implements Runnable {
+        private final String monitorableId;
+        private final AtomicReference<StatusVariable> latest = new AtomicReference<StatusVariable>();
+        private final AtomicBoolean open = new AtomicBoolean();
+
+        private Window(String monitorableId) {
+            this.monitorableId = monitorableId;
+        }
+
+        public void run() {
+            // close window before taking the value: an update that comes in between opens a new window
+            open.set(false);
+            StatusVariable statusVariable = latest.getAndSet(null);
+            if (statusVariable == null) {
+                return;
+            }
+            if (!registry.isRegistered(monitorableId)) {
+                // update raced with clear() of departed Monitorable and could re-create its windows
+                clear(monitorableId);
+                return;
+            }
+            if (eventSwitches.isEnabled(monitorableId, statusVariable.getID())) {
+                try {
+                    common.fireEvent(monitorableId, statusVariable, null);
+                    logVisitor.info("Fire new SV update Event: " + monitorableId + '/' + statusVariable.getID(), null);
+                } catch (RuntimeException e) {
+                    logVisitor.warning("Unable to fire coalesced update event: " + monitorableId + '/' +
+                            statusVariable.getID(), e);
+                }
+            }
+        }
+    }
+}
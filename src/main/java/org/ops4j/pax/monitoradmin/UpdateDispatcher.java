@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous <code>StatusVariable</code> updates dispatcher. <code>Monitorable</code> threads only enqueue
+ * updates into a bounded queue, the dedicated dispatcher thread drains the queue and
+ * posts events and notifies jobs.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class UpdateDispatcher implements Runnable {
+    /**
+     * Maximum number of updates that are drained from the queue at once
+     */
+    private static final int DRAIN_BATCH_SIZE = 256;
+    /**
+     * Period in milliseconds of dispatcher state checks while producer is blocked on the full queue
+     */
+    private static final long BLOCK_CHECK_PERIOD = 100;
+
+    private final MonitorAdminCommon common;
+    private final LogVisitor logVisitor;
+    private final BlockingQueue<Update> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong droppedUpdates = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    public UpdateDispatcher(MonitorAdminCommon common, LogVisitor logVisitor, int capacity,
+                            OverflowPolicy overflowPolicy, ThreadFactory threadFactory) {
+        this.common = common;
+        this.logVisitor = logVisitor;
+        this.overflowPolicy = overflowPolicy;
+        queue = new ArrayBlockingQueue<Update>(capacity);
+        thread = threadFactory.newThread(this);
+    }
+
+    /**
+     * Start dispatcher thread
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stop dispatcher thread. Queued updates are discarded
+     */
+    public void stop() {
+        stopped = true;
+        thread.interrupt();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+    }
+
+    /**
+     * Enqueue update. If the queue is full the overflow policy is applied. Updates that are reported
+     * after the dispatcher is stopped are dropped
+     *
+     * @param monitorableId  validated monitorable Id
+     * @param statusVariable StatusVariable
+     */
+    public void enqueue(String monitorableId, StatusVariable statusVariable) {
+        enqueue(new Update(monitorableId, new StatusVariable[]{statusVariable}));
+    }
+
+    /**
+     * Enqueue batch of updates of one <code>Monitorable</code>. Batch is queued and dropped as a whole
+     *
+     * @param monitorableId   validated monitorable Id
+     * @param statusVariables StatusVariables
+     */
+    public void enqueue(String monitorableId, StatusVariable[] statusVariables) {
+        enqueue(new Update(monitorableId, statusVariables));
+    }
+
+    private void enqueue(Update update) {
+        if (stopped) {
+            droppedUpdates.addAndGet(update.statusVariables.length);
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                if (!queue.offer(update)) {
+                    droppedUpdates.addAndGet(update.statusVariables.length);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(update)) {
+                    Update dropped = queue.poll();
+                    if (dropped != null) {
+                        droppedUpdates.addAndGet(dropped.statusVariables.length);
+                    }
+                }
+                break;
+            case BLOCK:
+                try {
+                    // the queue is not drained after stop, so blocked producer rechecks dispatcher state
+                    while (!queue.offer(update, BLOCK_CHECK_PERIOD, TimeUnit.MILLISECONDS)) {
+                        if (stopped) {
+                            droppedUpdates.addAndGet(update.statusVariables.length);
+                            break;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    droppedUpdates.addAndGet(update.statusVariables.length);
+                    Thread.currentThread().interrupt();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Get number of updates that were dropped because of queue overflow
+     *
+     * @return dropped updates count
+     */
+    public long getDroppedUpdates() {
+        return droppedUpdates.get();
+    }
+
+    /**
+     * Get number of updates that are waiting for dispatching
+     *
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public void run() {
+        List<Update> batch = new ArrayList<Update>(DRAIN_BATCH_SIZE);
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // dispatcher is stopped
+                break;
+            }
+            queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+            for (Update update : batch) {
+                try {
+                    common.dispatchUpdates(update.monitorableId, update.statusVariables);
+                } catch (RuntimeException e) {
+                    logVisitor.warning("Unable to dispatch updates of " + update.monitorableId, e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Queued updates of one <code>Monitorable</code>
+     */
+    private static class Update {
+        private final String monitorableId;
+        private final StatusVariable[] statusVariables;
+
+        private Update(String monitorableId, StatusVariable[] statusVariables) {
+            this.monitorableId = monitorableId;
+            this.statusVariables = statusVariables;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin.api;
+
+import org.osgi.service.monitor.MonitorListener;
+import org.osgi.service.monitor.StatusVariable;
+
+/**
+ * <code>MonitorListener</code> extension for <code>Monitorable</code>s that change many
+ * <code>StatusVariable</code>s at once. MonitorListener service is registered under both
+ * <code>MonitorListener</code> and <code>BatchMonitorListener</code> interfaces.
+ *
+ * @author dmytro.pishchukhin
+ */
+public interface BatchMonitorListener extends MonitorListener {
+    /**
+     * Callback for notification of several <code>StatusVariable</code> changes of one
+     * <code>Monitorable</code>. Is equivalent to calling {@link #updated(String, StatusVariable)} for every
+     * <code>StatusVariable</code> in array order, but the <code>Monitorable</code> is resolved
+     * and validated only once. If the arguments are invalid no update is reported.
+     *
+     * @param monitorableId   the identifier of the <code>Monitorable</code>
+     *                        instance reporting the changes
+     * @param statusVariables the <code>StatusVariable</code>s that have changed
+     * @throws IllegalArgumentException if the specified monitorable
+     *                                  ID is invalid (<code>null</code>, empty, or contains illegal
+     *                                  characters) or points to a non-existing <code>Monitorable</code>,
+     *                                  or if <code>statusVariables</code> is <code>null</code> or
+     *                                  contains <code>null</code>
+     */
+    void updated(String monitorableId, StatusVariable[] statusVariables) throws IllegalArgumentException;
+}
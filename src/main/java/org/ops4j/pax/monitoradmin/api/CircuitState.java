@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.api;
+
+/**
+ * State of <code>Monitorable</code> circuit breaker
+ *
+ * @author dmytro.pishchukhin
+ */
+public enum CircuitState {
+    /**
+     * <code>Monitorable</code> is healthy, all calls are passed
+     */
+    CLOSED,
+    /**
+     * <code>Monitorable</code> is unhealthy, calls are rejected
+     */
+    OPEN,
+    /**
+     * Open period is over, one trial call is passed to check if <code>Monitorable</code> recovered
+     */
+    HALF_OPEN
+}
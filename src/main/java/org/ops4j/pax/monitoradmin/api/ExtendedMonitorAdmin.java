@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.api;
+
+import org.osgi.service.monitor.MonitorAdmin;
+import org.osgi.service.monitor.MonitoringJob;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>MonitorAdmin</code> extension with Pax MonitorAdmin specific features.
+ * MonitorAdmin service is registered under both <code>MonitorAdmin</code> and
+ * <code>ExtendedMonitorAdmin</code> interfaces.
+ *
+ * @author dmytro.pishchukhin
+ */
+public interface ExtendedMonitorAdmin extends MonitorAdmin {
+    /**
+     * Starts a fixed-rate time based <code>MonitoringJob</code>. Unlike
+     * {@link #startScheduledJob(String, String[], int, int)} measurements are anchored to a monotonic clock:
+     * the time spent on a measurement does not shift the following ones, and periods shorter than
+     * one second are supported. The first measurement is taken immediately, or within 100 milliseconds
+     * if the job shares measurements with running jobs of the same period.
+     * <p/>
+     * Permissions are checked as for {@link #startScheduledJob(String, String[], int, int)}
+     * with the period rounded up to whole seconds, but at least one second. {@link MonitoringJob#getSchedule()}
+     * of the returned job reports the same rounded value, the exact period is available as
+     * {@link ExtendedMonitoringJob#getPeriodNanos()}.
+     *
+     * @param initiator       the identifier of the entity that initiated the job
+     * @param statusVariables the list of <code>StatusVariable</code>s to be
+     *                        monitored, with each <code>StatusVariable</code> name given in
+     *                        [Monitorable_PID]/[StatusVariable_ID] format
+     * @param period          the time between two measurements, must be at least one millisecond
+     * @param unit            period time unit
+     * @param count           the number of measurements to be taken, or 0 for the
+     *                        measurement to run until explicitly stopped
+     * @param policy          policy for measurements that were not taken in time
+     * @return the successfully started job object, cannot be <code>null</code>
+     * @throws IllegalArgumentException if the list of <code>StatusVariable</code> names contains an invalid or
+     *                                  non-existing <code>StatusVariable</code>; if <code>initiator</code>,
+     *                                  <code>unit</code> or <code>policy</code> is <code>null</code>; or if the
+     *                                  <code>period</code> or <code>count</code> parameters are invalid
+     * @throws SecurityException        if the caller does not hold <code>MonitorPermission</code> for all the
+     *                                  specified <code>StatusVariable</code>s, with the <code>startjob</code>
+     *                                  action present, or if the permission does not allow starting the
+     *                                  job with the given frequency
+     */
+    ExtendedMonitoringJob startScheduledJob(String initiator, String[] statusVariables, long period, TimeUnit unit,
+                                            int count, MissedTickPolicy policy)
+            throws IllegalArgumentException, SecurityException;
+
+    /**
+     * Starts a fixed-rate time based <code>MonitoringJob</code> as
+     * {@link #startScheduledJob(String, String[], long, TimeUnit, int, MissedTickPolicy)} does, optionally
+     * posting every measurement as one batch event.
+     * <p/>
+     * A batch job posts one event to <code>org/ops4j/pax/monitoradmin/batch</code> topic per measurement instead
+     * of one event per <code>StatusVariable</code> to the standard topic, so <code>EventHandler</code>s of the
+     * standard topic do not receive its measurements. Every <code>StatusVariable</code> of the job keeps
+     * its place in the batch event: <code>StatusVariable</code>s that were not read are marked with their
+     * {@link ReadStatus} in <code>mon.statusvariable.statuses</code> property.
+     *
+     * @param initiator       the identifier of the entity that initiated the job
+     * @param statusVariables the list of <code>StatusVariable</code>s to be
+     *                        monitored, with each <code>StatusVariable</code> name given in
+     *                        [Monitorable_PID]/[StatusVariable_ID] format
+     * @param period          the time between two measurements, must be at least one millisecond
+     * @param unit            period time unit
+     * @param count           the number of measurements to be taken, or 0 for the
+     *                        measurement to run until explicitly stopped
+     * @param policy          policy for measurements that were not taken in time
+     * @param batch           <code>true</code> to post measurements as batch events,
+     *                        <code>false</code> to post standard events
+     * @return the successfully started job object, cannot be <code>null</code>
+     * @throws IllegalArgumentException if the list of <code>StatusVariable</code> names contains an invalid or
+     *                                  non-existing <code>StatusVariable</code>; if <code>initiator</code>,
+     *                                  <code>unit</code> or <code>policy</code> is <code>null</code>; or if the
+     *                                  <code>period</code> or <code>count</code> parameters are invalid
+     * @throws SecurityException        if the caller does not hold <code>MonitorPermission</code> for all the
+     *                                  specified <code>StatusVariable</code>s, with the <code>startjob</code>
+     *                                  action present, or if the permission does not allow starting the
+     *                                  job with the given frequency
+     */
+    ExtendedMonitoringJob startScheduledJob(String initiator, String[] statusVariables, long period, TimeUnit unit,
+                                            int count, MissedTickPolicy policy, boolean batch)
+            throws IllegalArgumentException, SecurityException;
+
+    /**
+     * Returns the <code>StatusVariable</code>s addressed by paths. Paths are grouped by <code>Monitorable</code>,
+     * so every <code>Monitorable</code> is looked up once. A path that can not be read does not fail the whole
+     * call: its result holds the failure status instead of an exception.
+     * <p/>
+     * Permissions are checked for every path as for {@link #getStatusVariable(String)}.
+     *
+     * @param paths the full paths of the <code>StatusVariable</code>s in
+     *              [Monitorable_ID]/[StatusVariable_ID] format
+     * @return read results in the same order as <code>paths</code>, cannot be <code>null</code>
+     * @throws IllegalArgumentException if <code>paths</code> is <code>null</code>
+     */
+    ReadResult[] readStatusVariables(String[] paths) throws IllegalArgumentException;
+
+    /**
+     * Returns a snapshot of all <code>StatusVariable</code>s that match the path filter and are visible
+     * to the caller, in one pass over the matching <code>Monitorable</code>s. <code>StatusVariable</code>s
+     * are ordered by <code>Monitorable</code> PID.
+     * <p/>
+     * The filter has the same format as the path of {@link #switchEvents(String, boolean)}: both
+     * [Monitorable_ID] and [StatusVariable_ID] may end with '*' wildcard. <code>StatusVariable</code>s
+     * the caller has no <code>MonitorPermission</code> with the <code>read</code> action for are skipped.
+     * A <code>StatusVariable</code> the <code>Monitorable</code> failed to provide is returned with
+     * {@link ReadStatus#ERROR} status.
+     *
+     * @param pathFilter the path filter in [Monitorable_ID]/[StatusVariable_ID] format
+     * @return read results, cannot be <code>null</code>
+     * @throws IllegalArgumentException if <code>pathFilter</code> is <code>null</code> or otherwise invalid
+     */
+    ReadResult[] readSnapshot(String pathFilter) throws IllegalArgumentException;
+
+    /**
+     * Returns the <code>StatusVariable</code> asynchronously. Path and permissions are checked as for
+     * {@link #getStatusVariable(String)} before this method returns, the <code>Monitorable</code> is called
+     * on the bounded reads pool. A blocked <code>Monitorable</code> does not block the caller, which may
+     * wait for the result with a deadline and cancel the read.
+     *
+     * @param path the full path of the <code>StatusVariable</code> in
+     *             [Monitorable_ID]/[StatusVariable_ID] format
+     * @return the <code>StatusVariable</code> future
+     * @throws IllegalArgumentException   if <code>path</code> is <code>null</code> or otherwise invalid,
+     *                                    or points to a non-existing <code>StatusVariable</code>
+     * @throws SecurityException          if the caller does not hold a <code>MonitorPermission</code> for the
+     *                                    <code>StatusVariable</code> with the <code>read</code> action present
+     * @throws RejectedExecutionException if the reads queue is full or earlier reads of the
+     *                                    <code>Monitorable</code> are still in progress
+     */
+    Future<StatusVariable> getStatusVariableAsync(String path)
+            throws IllegalArgumentException, SecurityException, RejectedExecutionException;
+
+    /**
+     * Returns the <code>StatusVariable</code>s addressed by paths as {@link #readStatusVariables(String[])},
+     * but every <code>Monitorable</code> is read on the bounded reads pool. The call returns when all reads
+     * are completed or the timeout expires: paths of <code>Monitorable</code>s that did not respond in time
+     * have {@link ReadStatus#TIMEOUT} status, their reads are cancelled. Paths of <code>Monitorable</code>s
+     * that could not be queued have {@link ReadStatus#ERROR} status. Paths of <code>Monitorable</code>s
+     * that have earlier reads still in progress are not queued and have {@link ReadStatus#UNAVAILABLE} status.
+     *
+     * @param paths   the full paths of the <code>StatusVariable</code>s in
+     *                [Monitorable_ID]/[StatusVariable_ID] format
+     * @param timeout the maximum time to wait for the reads
+     * @param unit    timeout time unit
+     * @return read results in the same order as <code>paths</code>, cannot be <code>null</code>
+     * @throws IllegalArgumentException if <code>paths</code> or <code>unit</code> is <code>null</code>,
+     *                                  or <code>timeout</code> is negative
+     */
+    ReadResult[] readStatusVariables(String[] paths, long timeout, TimeUnit unit) throws IllegalArgumentException;
+
+    /**
+     * Returns health of <code>Monitorable</code>s that were read: circuit breaker state, average read latency
+     * and error rate. Extended reads and scheduled job measurements of a <code>Monitorable</code> with open
+     * breaker are rejected with {@link MonitorableUnavailableException} or {@link ReadStatus#UNAVAILABLE}.
+     * Standard <code>MonitorAdmin</code> reads are not guarded by breakers. Breakers are off unless
+     * the open period is configured.
+     *
+     * @return health snapshots, empty array if circuit breakers are off
+     */
+    MonitorableHealth[] getMonitorableHealth();
+}
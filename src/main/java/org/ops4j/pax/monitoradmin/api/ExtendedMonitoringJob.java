@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin.api;
+
+import org.osgi.service.monitor.MonitoringJob;
+
+/**
+ * Time based <code>MonitoringJob</code> with Pax MonitorAdmin specific properties. Jobs started by
+ * {@link ExtendedMonitorAdmin#startScheduledJob(String, String[], long, java.util.concurrent.TimeUnit, int, MissedTickPolicy)}
+ * implement this interface.
+ * <p/>
+ * {@link #getSchedule()} of the job reports the period rounded up to whole seconds, but at least one second,
+ * so a job with period shorter than one second is not taken for a change based job.
+ *
+ * @author dmytro.pishchukhin
+ */
+public interface ExtendedMonitoringJob extends MonitoringJob {
+    /**
+     * Returns the exact time between two measurements
+     *
+     * @return period in nanoseconds
+     */
+    long getPeriodNanos();
+
+    /**
+     * Returns the policy for measurements that were not taken in time
+     *
+     * @return policy or <code>null</code> if the job runs with fixed delay
+     */
+    MissedTickPolicy getPolicy();
+
+    /**
+     * Returns whether measurements are posted as one batch event
+     *
+     * @return <code>true</code> if the job posts batch events
+     */
+    boolean isBatch();
+}
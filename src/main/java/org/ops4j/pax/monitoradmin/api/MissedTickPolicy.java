@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.api;
+
+/**
+ * Policy of fixed-rate scheduled <code>MonitoringJob</code> for measurements that were not taken in time
+ * (e.g. because previous measurement took longer than the job period)
+ *
+ * @author dmytro.pishchukhin
+ */
+public enum MissedTickPolicy {
+    /**
+     * Missed measurements are dropped: the job takes one measurement immediately
+     * and continues with the next tick of the original schedule
+     */
+    SKIP,
+    /**
+     * Missed measurements are taken one after another without delay until the job is back on schedule
+     */
+    CATCH_UP
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.api;
+
+/**
+ * Health snapshot of <code>Monitorable</code>: circuit breaker state and
+ * exponentially weighted averages of <code>StatusVariable</code> read latency and error rate
+ *
+ * @author dmytro.pishchukhin
+ */
+public final class MonitorableHealth {
+    private final String monitorableId;
+    private final CircuitState state;
+    private final long averageLatency;
+    private final double errorRate;
+
+    public MonitorableHealth(String monitorableId, CircuitState state, long averageLatency, double errorRate) {
+        this.monitorableId = monitorableId;
+        this.state = state;
+        this.averageLatency = averageLatency;
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Get monitorable Id
+     *
+     * @return monitorable Id
+     */
+    public String getMonitorableId() {
+        return monitorableId;
+    }
+
+    /**
+     * Get circuit breaker state
+     *
+     * @return state
+     */
+    public CircuitState getState() {
+        return state;
+    }
+
+    /**
+     * Get average read latency
+     *
+     * @return latency in nanoseconds
+     */
+    public long getAverageLatency() {
+        return averageLatency;
+    }
+
+    /**
+     * Get average read error rate
+     *
+     * @return error rate from <code>0</code> to <code>1</code>
+     */
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("MonitorableHealth");
+        sb.append("{monitorableId='").append(monitorableId).append('\'');
+        sb.append(", state=").append(state);
+        sb.append(", averageLatency=").append(averageLatency);
+        sb.append(", errorRate=").append(errorRate);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.api;
+
+/**
+ * Is thrown when <code>Monitorable</code> call is rejected because its circuit breaker is open
+ * or it has too many asynchronous reads in progress.
+ * Standard <code>MonitorAdmin</code> methods never throw it
+ *
+ * @author dmytro.pishchukhin
+ */
+public class MonitorableUnavailableException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    public MonitorableUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.api;
+
+import org.osgi.service.monitor.StatusVariable;
+
+/**
+ * Result of one <code>StatusVariable</code> read of a bulk read
+ *
+ * @author dmytro.pishchukhin
+ * @see ExtendedMonitorAdmin#readStatusVariables(String[])
+ */
+public final class ReadResult {
+    private final String path;
+    private final ReadStatus status;
+    private final StatusVariable statusVariable;
+
+    public ReadResult(String path, ReadStatus status, StatusVariable statusVariable) {
+        this.path = path;
+        this.status = status;
+        this.statusVariable = statusVariable;
+    }
+
+    /**
+     * Get requested <code>StatusVariable</code> path
+     *
+     * @return path as it was requested
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Get read status
+     *
+     * @return status
+     */
+    public ReadStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Get read <code>StatusVariable</code>
+     *
+     * @return <code>StatusVariable</code> or <code>null</code> if status is not {@link ReadStatus#OK}
+     */
+    public StatusVariable getStatusVariable() {
+        return statusVariable;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("ReadResult");
+        sb.append("{path='").append(path).append('\'');
+        sb.append(", status=").append(status);
+        sb.append(", statusVariable=").append(statusVariable);
+        sb.append('}');
+        return sb.toString();
+    }
+}
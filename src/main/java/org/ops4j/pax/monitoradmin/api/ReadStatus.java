@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.api;
+
+/**
+ * Status of one <code>StatusVariable</code> read of a bulk read or of a batch job measurement
+ *
+ * @author dmytro.pishchukhin
+ * @see ExtendedMonitorAdmin#readStatusVariables(String[])
+ */
+public enum ReadStatus {
+    /**
+     * <code>StatusVariable</code> is read
+     */
+    OK,
+    /**
+     * Path is <code>null</code> or otherwise invalid
+     */
+    INVALID_PATH,
+    /**
+     * Path points to a non-existing <code>Monitorable</code> or <code>StatusVariable</code>,
+     * or <code>StatusVariable</code> is not published
+     */
+    NOT_FOUND,
+    /**
+     * Caller does not hold <code>MonitorPermission</code> with the <code>read</code> action
+     */
+    ACCESS_DENIED,
+    /**
+     * <code>Monitorable</code> failed to provide the <code>StatusVariable</code>
+     */
+    ERROR,
+    /**
+     * <code>Monitorable</code> call is rejected because its circuit breaker is open
+     * or its earlier asynchronous reads are still in progress
+     */
+    UNAVAILABLE,
+    /**
+     * <code>Monitorable</code> did not provide the <code>StatusVariable</code> before the read deadline
+     */
+    TIMEOUT
+}
@@ -21,7 +21,7 @@ import org.osgi.service.monitor.MonitoringJob;
 import org.osgi.service.monitor.StatusVariable;
 
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
@@ -34,10 +34,10 @@ public abstract class AbstractMonitoringJob implements MonitoringJob {
     protected LogVisitor logVisitor;
     // job initiator
     private String initiator;
-    // list of monitoring StatusVariables
-    protected Set<String> statusVariablePaths = new HashSet<String>();
+    // list of monitoring StatusVariables in job start order
+    protected Set<String> statusVariablePaths = new LinkedHashSet<String>();
     // job state
-    protected boolean isRunning;
+    protected volatile boolean isRunning;
     protected int schedule = 0;
     protected int count = 0;
 
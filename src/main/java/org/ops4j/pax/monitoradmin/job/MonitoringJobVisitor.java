@@ -16,6 +16,8 @@
 
 package org.ops4j.pax.monitoradmin.job;
 
+import org.ops4j.pax.monitoradmin.api.ReadStatus;
+import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
 import org.osgi.service.monitor.StatusVariable;
 
 /**
@@ -49,4 +51,44 @@ public interface MonitoringJobVisitor {
      * @param initiator initiator
      */
     void fireEvent(String monitorableId, StatusVariable statusVariable, String initiator);
+
+    /**
+     * Fire one event with measurements of scheduled job tick
+     * @param paths StatusVariable paths
+     * @param statusVariables StatusVariable values, parallel to <code>paths</code>, <code>null</code> if not read
+     * @param statuses read statuses, parallel to <code>paths</code>
+     * @param initiator initiator
+     */
+    void fireBatchEvent(StatusVariablePath[] paths, StatusVariable[] statusVariables, ReadStatus[] statuses,
+                        String initiator);
+
+    /**
+     * Start taking measurements of scheduled job
+     * @param job job
+     */
+    void scheduleJob(ScheduledMonitoringJob job);
+
+    /**
+     * Stop taking measurements of scheduled job
+     * @param job job
+     */
+    void unscheduleJob(ScheduledMonitoringJob job);
+
+    /**
+     * Get interned path
+     * @param path path value
+     * @return validated path
+     * @throws IllegalArgumentException path is <code>null</code> or invalid
+     */
+    StatusVariablePath getStatusVariablePath(String path) throws IllegalArgumentException;
+
+    /**
+     * Get interned path
+     * @param monitorableId monitorable id
+     * @param statusVariableId StatusVariable id
+     * @return validated path
+     * @throws IllegalArgumentException ids are <code>null</code> or invalid
+     */
+    StatusVariablePath getStatusVariablePath(String monitorableId, String statusVariableId)
+            throws IllegalArgumentException;
 }
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin.job;
+
+import org.ops4j.pax.monitoradmin.LogVisitor;
+import org.ops4j.pax.monitoradmin.api.MissedTickPolicy;
+import org.ops4j.pax.monitoradmin.api.MonitorableUnavailableException;
+import org.ops4j.pax.monitoradmin.api.ReadStatus;
+import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polling engine that takes measurements of all scheduled jobs on a shared scheduler.
+ * Jobs with the same period, scheduling mode and phase are grouped into one tick: on every tick
+ * each distinct <code>StatusVariable</code> is read once and the sampled value is
+ * fanned out to all jobs of the tick.
+ * <p/>
+ * Measurements of a batch job are posted as one event after all <code>StatusVariable</code>s of the job
+ * are read, so consumers get a consistent snapshot of the tick.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class PollingEngine {
+    /**
+     * Maximum delay of the first measurement of a job that joins existing tick, in nanoseconds
+     */
+    public static final long MAX_JOIN_DELAY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MonitoringJobVisitor visitor;
+    private final LogVisitor logVisitor;
+    private final ScheduledExecutorService scheduler;
+    /**
+     * Active ticks by schedule. Guarded by itself
+     */
+    private final Map<TickKey, List<Tick>> ticks = new HashMap<TickKey, List<Tick>>();
+
+    public PollingEngine(MonitoringJobVisitor visitor, LogVisitor logVisitor, ScheduledExecutorService scheduler) {
+        this.visitor = visitor;
+        this.logVisitor = logVisitor;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Add job to the tick with the same schedule and phase. Job joins existing tick only if the next
+     * measurement of the tick is due within {@link #MAX_JOIN_DELAY}: the job takes its first measurement
+     * with that tick and every following one exactly one period later. Otherwise new tick is started
+     * and the first measurement of the job is taken immediately
+     *
+     * @param job scheduled job
+     */
+    public void add(ScheduledMonitoringJob job) {
+        TickKey key = new TickKey(job.getPeriodNanos(), job.getPolicy());
+        synchronized (ticks) {
+            List<Tick> keyTicks = ticks.get(key);
+            if (keyTicks == null) {
+                keyTicks = new ArrayList<Tick>();
+                ticks.put(key, keyTicks);
+            }
+            long now = nanoTime();
+            for (Tick tick : keyTicks) {
+                if (tick.isJoinable(now)) {
+                    tick.jobs.add(job);
+                    return;
+                }
+            }
+            Tick tick = new Tick(key);
+            keyTicks.add(tick);
+            tick.jobs.add(job);
+            tick.schedule(now, now);
+        }
+    }
+
+    /**
+     * Remove job from its tick. Tick without jobs is stopped
+     *
+     * @param job scheduled job
+     */
+    public void remove(ScheduledMonitoringJob job) {
+        TickKey key = new TickKey(job.getPeriodNanos(), job.getPolicy());
+        synchronized (ticks) {
+            List<Tick> keyTicks = ticks.get(key);
+            if (keyTicks == null) {
+                return;
+            }
+            for (Iterator<Tick> iterator = keyTicks.iterator(); iterator.hasNext(); ) {
+                Tick tick = iterator.next();
+                if (tick.jobs.remove(job)) {
+                    if (tick.jobs.isEmpty()) {
+                        iterator.remove();
+                        tick.stop();
+                    }
+                    break;
+                }
+            }
+            if (keyTicks.isEmpty()) {
+                ticks.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Get current time of the engine clock
+     *
+     * @return time in <code>System.nanoTime()</code> scale
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Take measurements of all jobs of the tick
+     *
+     * @param jobs tick jobs
+     */
+    private void poll(List<ScheduledMonitoringJob> jobs) {
+        // StatusVariables sampled in this tick
+        Map<String, StatusVariable> samples = new HashMap<String, StatusVariable>();
+        for (ScheduledMonitoringJob job : jobs) {
+            if (!job.isRunning()) {
+                continue;
+            }
+            if (!job.takeMeasurement()) {
+                job.stop();
+                continue;
+            }
+            if (job.isBatch()) {
+                measureBatch(job, samples);
+            } else {
+                measure(job, samples);
+            }
+        }
+    }
+
+    /**
+     * Take measurement of the job and post one event per <code>StatusVariable</code>
+     *
+     * @param job     scheduled job
+     * @param samples <code>StatusVariable</code>s sampled in the current tick
+     */
+    private void measure(ScheduledMonitoringJob job, Map<String, StatusVariable> samples) {
+        for (StatusVariablePath path : job.getPaths()) {
+            try {
+                visitor.fireEvent(path.getMonitorableId(), sample(path, samples), job.getInitiator());
+            } catch (IllegalArgumentException e) {
+                // it seems that one StatusVariable is unregistered
+                job.stop();
+                break;
+            } catch (MonitorableUnavailableException e) {
+                // unhealthy Monitorable is skipped, other StatusVariables are measured
+                logVisitor.debug("Measurement is skipped: " + path.getPath(), null);
+            } catch (RuntimeException e) {
+                logVisitor.warning("Unable to take measurement: " + path.getPath() + " of " + job, e);
+            }
+        }
+    }
+
+    /**
+     * Take measurement of the job and post it as one batch event. <code>StatusVariable</code>s that
+     * are not read keep their place in the batch with status of the failure
+     *
+     * @param job     scheduled job
+     * @param samples <code>StatusVariable</code>s sampled in the current tick
+     */
+    private void measureBatch(ScheduledMonitoringJob job, Map<String, StatusVariable> samples) {
+        StatusVariablePath[] paths = job.getPaths();
+        StatusVariable[] statusVariables = new StatusVariable[paths.length];
+        ReadStatus[] statuses = new ReadStatus[paths.length];
+        boolean unregistered = false;
+        for (int i = 0; i < paths.length; i++) {
+            try {
+                statusVariables[i] = sample(paths[i], samples);
+                statuses[i] = ReadStatus.OK;
+            } catch (IllegalArgumentException e) {
+                // it seems that one StatusVariable is unregistered
+                statuses[i] = ReadStatus.NOT_FOUND;
+                unregistered = true;
+            } catch (MonitorableUnavailableException e) {
+                logVisitor.debug("Measurement is skipped: " + paths[i].getPath(), null);
+                statuses[i] = ReadStatus.UNAVAILABLE;
+            } catch (RuntimeException e) {
+                logVisitor.warning("Unable to take measurement: " + paths[i].getPath() + " of " + job, e);
+                statuses[i] = ReadStatus.ERROR;
+            }
+        }
+        visitor.fireBatchEvent(paths, statusVariables, statuses, job.getInitiator());
+        if (unregistered) {
+            job.stop();
+        }
+    }
+
+    /**
+     * Read <code>StatusVariable</code> once per tick
+     *
+     * @param path    <code>StatusVariable</code> path
+     * @param samples <code>StatusVariable</code>s sampled in the current tick
+     * @return <code>StatusVariable</code>
+     */
+    private StatusVariable sample(StatusVariablePath path, Map<String, StatusVariable> samples) {
+        StatusVariable statusVariable = samples.get(path.getPath());
+        if (statusVariable == null) {
+            statusVariable = visitor.getStatusVariable(path.getPath());
+            samples.put(path.getPath(), statusVariable);
+        }
+        return statusVariable;
+    }
+
+    /**
+     * Tick identity: jobs with the same period and policy share one tick
+     */
+    private static class TickKey {
+        private final long periodNanos;
+        private final MissedTickPolicy policy;
+
+        private TickKey(long periodNanos, MissedTickPolicy policy) {
+            this.periodNanos = periodNanos;
+            this.policy = policy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TickKey)) {
+                return false;
+            }
+            TickKey tickKey = (TickKey) o;
+            return periodNanos == tickKey.periodNanos && policy == tickKey.policy;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (periodNanos ^ (periodNanos >>> 32)) + (policy != null ? policy.hashCode() : 0);
+        }
+    }
+
+    /**
+     * Periodic task that takes measurements of a group of jobs
+     */
+    private class Tick implements Runnable {
+        private final TickKey key;
+        // Guarded by ticks
+        private final List<ScheduledMonitoringJob> jobs = new ArrayList<ScheduledMonitoringJob>();
+        // Guarded by ticks
+        private boolean stopped;
+        // measurements are being taken. Guarded by ticks
+        private boolean polling;
+        // Guarded by ticks
+        private ScheduledFuture<?> future;
+        // time of the next measurement in nanoTime() scale. Guarded by ticks
+        private long nextTick;
+
+        private Tick(TickKey key) {
+            this.key = key;
+        }
+
+        /**
+         * Can a new job take its measurements with this tick
+         *
+         * @param now current time in nanoTime() scale
+         * @return <code>true</code> - the next measurement has not started yet and is due within
+         *         {@link PollingEngine#MAX_JOIN_DELAY}
+         */
+        private boolean isJoinable(long now) {
+            return !polling && nextTick - now <= MAX_JOIN_DELAY;
+        }
+
+        /**
+         * Schedule next measurement
+         *
+         * @param time time of the measurement in nanoTime() scale
+         * @param now  current time in nanoTime() scale
+         */
+        private void schedule(long time, long now) {
+            nextTick = time;
+            future = scheduler.schedule(this, Math.max(0, time - now), TimeUnit.NANOSECONDS);
+        }
+
+        private void stop() {
+            stopped = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        public void run() {
+            List<ScheduledMonitoringJob> tickJobs;
+            synchronized (ticks) {
+                if (stopped) {
+                    return;
+                }
+                polling = true;
+                tickJobs = new ArrayList<ScheduledMonitoringJob>(jobs);
+            }
+            try {
+                poll(tickJobs);
+            } finally {
+                synchronized (ticks) {
+                    polling = false;
+                    if (!stopped) {
+                        scheduleNextTick();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Schedule next measurement. Fixed-delay ticks wait for the period after the measurement is taken.
+         * Fixed-rate ticks are anchored to the tick start time, so the duration of measurements does not
+         * accumulate
+         */
+        private void scheduleNextTick() {
+            long now = nanoTime();
+            if (key.policy == null) {
+                schedule(now + key.periodNanos, now);
+                return;
+            }
+            long time = nextTick + key.periodNanos;
+            long lateness = now - time;
+            if (lateness >= key.periodNanos && key.policy == MissedTickPolicy.SKIP) {
+                // drop all missed measurements except the last one
+                long missedTicks = lateness / key.periodNanos;
+                time += missedTicks * key.periodNanos;
+                logVisitor.debug(String.format("%d measurements are skipped", missedTicks), null);
+            }
+            schedule(time, now);
+        }
+    }
+}
@@ -17,33 +17,79 @@
 package org.ops4j.pax.monitoradmin.job;
 
 import org.ops4j.pax.monitoradmin.LogVisitor;
+import org.ops4j.pax.monitoradmin.api.ExtendedMonitoringJob;
+import org.ops4j.pax.monitoradmin.api.MissedTickPolicy;
 import org.osgi.service.monitor.StatusVariable;
 import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Scheduled MonitoringJob
+ * Scheduled MonitoringJob. Job runs either with fixed delay of <code>schedule</code> seconds between measurements
+ * or with fixed rate anchored to <code>System.nanoTime()</code>. Measurements are taken by {@link PollingEngine}
  *
  * @author dmytro.pishchukhin
  */
-public class ScheduledMonitoringJob extends AbstractMonitoringJob implements Runnable {
+public class ScheduledMonitoringJob extends AbstractMonitoringJob implements ExtendedMonitoringJob {
     private int measurementsTaken = 0;
-    private ExecutorService executorService;
+    // period in nanoseconds
+    private final long periodNanos;
+    // fixed-rate missed measurements policy, null - fixed delay job
+    private final MissedTickPolicy policy;
+    // measurements are posted as one batch event
+    private final boolean batch;
+    // parsed StatusVariable paths
+    private final StatusVariablePath[] paths;
 
     public ScheduledMonitoringJob(MonitoringJobVisitor visitor, LogVisitor logVisitor, String initiator,
                                   String[] statusVariablePaths, int schedule, int count) {
         super(visitor, logVisitor, initiator, statusVariablePaths, schedule, count);
-        executorService = Executors.newSingleThreadExecutor();
-        executorService.submit(this);
+        periodNanos = TimeUnit.SECONDS.toNanos(schedule);
+        policy = null;
+        batch = false;
+        paths = parsePaths();
+        visitor.scheduleJob(this);
+    }
+
+    public ScheduledMonitoringJob(MonitoringJobVisitor visitor, LogVisitor logVisitor, String initiator,
+                                  String[] statusVariablePaths, long period, TimeUnit unit, int count,
+                                  MissedTickPolicy policy, boolean batch) {
+        super(visitor, logVisitor, initiator, statusVariablePaths, toSchedule(unit.toNanos(period)), count);
+        this.periodNanos = unit.toNanos(period);
+        this.policy = policy;
+        this.batch = batch;
+        paths = parsePaths();
+        visitor.scheduleJob(this);
+    }
+
+    /**
+     * Convert period to job schedule: period is rounded up to whole seconds, but at least one second,
+     * because schedule <code>0</code> stands for change based job
+     *
+     * @param periodNanos period in nanoseconds
+     * @return schedule in seconds
+     */
+    public static int toSchedule(long periodNanos) {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(periodNanos);
+        if (TimeUnit.SECONDS.toNanos(seconds) < periodNanos) {
+            seconds++;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, seconds));
+    }
+
+    private StatusVariablePath[] parsePaths() {
+        StatusVariablePath[] result = new StatusVariablePath[statusVariablePaths.size()];
+        int i = 0;
+        for (String path : statusVariablePaths) {
+            result[i++] = visitor.getStatusVariablePath(path);
+        }
+        return result;
     }
 
     @Override
     public void cancel() {
         isRunning = false;
-        executorService.shutdownNow();
+        visitor.unscheduleJob(this);
         logVisitor.info("Job Canceled: " + this, null);
     }
 
@@ -57,28 +103,63 @@ public class ScheduledMonitoringJob extends AbstractMonitoringJob implements Run
         // do nothing
     }
 
-    public void run() {
-        while (isRunning()) {
-            // run loop to fetch StatusVariables values and fire events
-            if (count == 0 || ++measurementsTaken < count) {
-                try {
-                    for (String path : statusVariablePaths) {
-                        StatusVariablePath statusVariablePath = new StatusVariablePath(path);
-                        StatusVariable statusVariable = visitor.getStatusVariable(statusVariablePath.getPath());
-                        visitor.fireEvent(statusVariablePath.getMonitorableId(), statusVariable, getInitiator());
-                    }
-                    try {
-                        TimeUnit.SECONDS.sleep(schedule);
-                    } catch (InterruptedException e) {
-                        return;
-                    }
-                } catch (IllegalArgumentException e) {
-                    // it seems that one StatusVariable is unregistered
-                    stop();
-                }
-            } else {
-                stop();
-            }
+    /**
+     * Register next measurement. Is called by the polling engine on every tick
+     *
+     * @return <code>true</code> - measurement should be taken,
+     *         <code>false</code> - all measurements are taken and job should be stopped
+     */
+    boolean takeMeasurement() {
+        return count == 0 || ++measurementsTaken < count;
+    }
+
+    /**
+     * Get parsed StatusVariable paths
+     *
+     * @return paths
+     */
+    StatusVariablePath[] getPaths() {
+        return paths;
+    }
+
+    /**
+     * Get period between measurements
+     *
+     * @return period in nanoseconds
+     */
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Get fixed-rate missed measurements policy
+     *
+     * @return policy or <code>null</code> if job runs with fixed delay
+     */
+    public MissedTickPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Check if measurements are posted as one batch event
+     *
+     * @return <code>true</code> if job posts batch events
+     */
+    public boolean isBatch() {
+        return batch;
+    }
+
+    @Override
+    public String toString() {
+        if (policy == null) {
+            return super.toString();
         }
+        final StringBuilder sb = new StringBuilder(super.toString());
+        sb.setLength(sb.length() - 1);
+        sb.append(", periodNanos=").append(periodNanos);
+        sb.append(", policy=").append(policy);
+        sb.append(", batch=").append(batch);
+        sb.append('}');
+        return sb.toString();
     }
 }
@@ -20,8 +20,9 @@ import org.ops4j.pax.monitoradmin.LogVisitor;
 import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
 import org.osgi.service.monitor.StatusVariable;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Subscription MonitoringJob
@@ -29,14 +30,15 @@ import java.util.Map;
  * @author dmytro.pishchukhin
  */
 public class SubscriptionMonitoringJob extends AbstractMonitoringJob {
-    private Map<String, Integer> countStatesMap = new HashMap<String, Integer>();
+    private final Map<StatusVariablePath, AtomicInteger> countStatesMap =
+            new ConcurrentHashMap<StatusVariablePath, AtomicInteger>();
 
     public SubscriptionMonitoringJob(MonitoringJobVisitor visitor, LogVisitor logVisitor, String initiator,
                                      String[] statusVariablePaths, int count) {
         super(visitor, logVisitor, initiator, statusVariablePaths, count);
         // initialize counts map
         for (String statusVariablePath : statusVariablePaths) {
-            countStatesMap.put(statusVariablePath, 0);
+            countStatesMap.put(visitor.getStatusVariablePath(statusVariablePath), new AtomicInteger());
         }
     }
 
@@ -53,13 +55,17 @@ public class SubscriptionMonitoringJob extends AbstractMonitoringJob {
 
     @Override
     public void handleUpdateEvent(String monitorableId, StatusVariable statusVariable) {
-        StatusVariablePath path = new StatusVariablePath(monitorableId, statusVariable.getID());
-        int statusVariableChangesCount = countStatesMap.get(path.getPath());
-        if ((statusVariableChangesCount + 1) == count) {
+        StatusVariablePath path = visitor.getStatusVariablePath(monitorableId, statusVariable.getID());
+        AtomicInteger statusVariableChangesCount = countStatesMap.get(path);
+        // updates could be reported concurrently by several Monitorable threads
+        int current;
+        int next;
+        do {
+            current = statusVariableChangesCount.get();
+            next = (current + 1) == count ? 0 : current + 1;
+        } while (!statusVariableChangesCount.compareAndSet(current, next));
+        if (next == 0) {
             visitor.fireEvent(monitorableId, statusVariable, getInitiator());
-            countStatesMap.put(path.getPath(), 0);
-        } else {
-            countStatesMap.put(path.getPath(), statusVariableChangesCount + 1);
         }
     }
 }
\ No newline at end of file
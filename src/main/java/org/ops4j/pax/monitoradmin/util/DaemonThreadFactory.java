@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory that creates named daemon threads
+ *
+ * @author dmytro.pishchukhin
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+    private final String name;
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    /**
+     * Initialize factory
+     *
+     * @param name threads name prefix
+     */
+    public DaemonThreadFactory(String name) {
+        this.name = name;
+    }
+
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event sending switches of <code>StatusVariable</code>s. Every <code>Monitorable</code> has its own
+ * bitset of disabled <code>StatusVariable</code>s indexed by variable ordinal. Ordinal is assigned when
+ * events of the variable are switched off and is released for reuse when they are switched on again,
+ * so only disabled variables hold ordinals.
+ * <p/>
+ * Switch state is read without locks and allocations, switches are serialized and
+ * published as a new copy of the ordinals and the bitset.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class EventSwitches {
+    /**
+     * Monitorable Id to switches index
+     */
+    private final Map<String, MonitorableSwitches> monitorables = new ConcurrentHashMap<String, MonitorableSwitches>();
+
+    /**
+     * Check if events are enabled for given <code>StatusVariable</code>
+     *
+     * @param monitorableId    monitorable Id
+     * @param statusVariableId StatusVariable Id
+     * @return if events are enabled - <code>true</code>, otherwise - <code>false</code>
+     */
+    public boolean isEnabled(String monitorableId, String statusVariableId) {
+        MonitorableSwitches switches = monitorables.get(monitorableId);
+        return switches == null || !switches.isDisabled(statusVariableId);
+    }
+
+    /**
+     * Switch on/off events for the set of <code>StatusVariable</code>s of one <code>Monitorable</code>
+     *
+     * @param monitorableId     monitorable Id
+     * @param statusVariableIds StatusVariable Ids
+     * @param on                <code>false</code> if event sending should be switched off,
+     *                          <code>true</code> if it should be switched on
+     */
+    public synchronized void switchEvents(String monitorableId, Collection<String> statusVariableIds, boolean on) {
+        MonitorableSwitches switches = monitorables.get(monitorableId);
+        if (switches == null) {
+            if (on) {
+                // events are enabled by default
+                return;
+            }
+            switches = new MonitorableSwitches();
+            monitorables.put(monitorableId, switches);
+        }
+        switches.switchEvents(statusVariableIds, on);
+        if (switches.isEmpty()) {
+            monitorables.remove(monitorableId);
+        }
+    }
+
+    /**
+     * Get number of ordinals held by <code>StatusVariable</code>s of <code>Monitorable</code>
+     *
+     * @param monitorableId monitorable Id
+     * @return number of ordinals
+     */
+    public synchronized int getOrdinalCount(String monitorableId) {
+        MonitorableSwitches switches = monitorables.get(monitorableId);
+        return switches == null ? 0 : switches.state.ordinals.size();
+    }
+
+    /**
+     * Get paths of <code>StatusVariable</code>s with disabled events
+     *
+     * @return array with StatusVariable paths
+     */
+    public synchronized String[] getDisabledPaths() {
+        List<String> paths = new ArrayList<String>();
+        for (Map.Entry<String, MonitorableSwitches> entry : monitorables.entrySet()) {
+            entry.getValue().collectDisabled(entry.getKey(), paths);
+        }
+        return paths.toArray(new String[paths.size()]);
+    }
+
+    /**
+     * Switches of one <code>Monitorable</code>. Modifications are guarded by the <code>EventSwitches</code> lock
+     */
+    private static class MonitorableSwitches {
+        /**
+         * Current switches. Is replaced on every modification
+         */
+        private volatile State state = new State(new HashMap<String, Integer>(), new long[0]);
+
+        private boolean isDisabled(String statusVariableId) {
+            State current = state;
+            Integer ordinal = current.ordinals.get(statusVariableId);
+            return ordinal != null && (current.disabled[ordinal >>> 6] & (1L << ordinal)) != 0;
+        }
+
+        private void switchEvents(Collection<String> statusVariableIds, boolean on) {
+            State current = state;
+            Map<String, Integer> ordinals = new HashMap<String, Integer>(current.ordinals);
+            // every disabled StatusVariable holds one bit, so new ordinals fit into the set bits count
+            int words = on ? current.disabled.length
+                    : Math.max(current.disabled.length, (ordinals.size() + statusVariableIds.size() + 63) >>> 6);
+            long[] bits = new long[words];
+            System.arraycopy(current.disabled, 0, bits, 0, current.disabled.length);
+            int freeOrdinal = 0;
+            for (String statusVariableId : statusVariableIds) {
+                if (on) {
+                    Integer ordinal = ordinals.remove(statusVariableId);
+                    if (ordinal != null) {
+                        bits[ordinal >>> 6] &= ~(1L << ordinal);
+                    }
+                } else if (!ordinals.containsKey(statusVariableId)) {
+                    freeOrdinal = nextClearBit(bits, freeOrdinal);
+                    ordinals.put(statusVariableId, freeOrdinal);
+                    bits[freeOrdinal >>> 6] |= 1L << freeOrdinal;
+                }
+            }
+            state = new State(ordinals, trim(bits));
+        }
+
+        private boolean isEmpty() {
+            return state.ordinals.isEmpty();
+        }
+
+        private void collectDisabled(String monitorableId, List<String> paths) {
+            for (String statusVariableId : state.ordinals.keySet()) {
+                paths.add(new StatusVariablePath(monitorableId, statusVariableId).getPath());
+            }
+        }
+
+        private static int nextClearBit(long[] bits, int fromIndex) {
+            int index = fromIndex;
+            while ((bits[index >>> 6] & (1L << index)) != 0) {
+                index++;
+            }
+            return index;
+        }
+
+        private static long[] trim(long[] bits) {
+            int words = bits.length;
+            while (words > 0 && bits[words - 1] == 0) {
+                words--;
+            }
+            if (words == bits.length) {
+                return bits;
+            }
+            long[] copy = new long[words];
+            System.arraycopy(bits, 0, copy, 0, words);
+            return copy;
+        }
+    }
+
+    /**
+     * Immutable switches of one <code>Monitorable</code>: ordinals of disabled <code>StatusVariable</code>s
+     * and the bitset of these ordinals
+     */
+    private static class State {
+        private final Map<String, Integer> ordinals;
+        private final long[] disabled;
+
+        private State(Map<String, Integer> ordinals, long[] disabled) {
+            this.ordinals = ordinals;
+            this.disabled = disabled;
+        }
+    }
+}
@@ -116,4 +116,22 @@ public class StatusVariablePath {
     protected boolean validateId(String id) {
         return Utils.validatePathId(id);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StatusVariablePath that = (StatusVariablePath) o;
+        return path != null ? path.equals(that.path) : that.path == null;
+    }
+
+    @Override
+    public int hashCode() {
+        // String caches its hash
+        return path != null ? path.hashCode() : 0;
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interning pool of validated <code>StatusVariablePath</code>s. While a path is pooled the same
+ * instance is returned for it, so pooled paths could be compared by identity and used as map keys.
+ * <p/>
+ * Lookups are lock-free. Pool size is bounded: when the pool is full, new paths are validated
+ * and returned without pooling. Paths of departed <code>Monitorable</code>s are evicted with {@link #evict(String)}.
+ * If {@link MonitorableRegistry} is given, paths of <code>Monitorable</code>s that are not registered are
+ * validated and returned without pooling, so lookups of non-existing paths do not fill the pool.
+ *
+ * @author dmytro.pishchukhin
+ */
+public class StatusVariablePathPool {
+    /**
+     * Default maximum number of pooled paths
+     */
+    public static final int DEFAULT_MAX_SIZE = 16384;
+
+    private final int maxSize;
+    private final MonitorableRegistry registry;
+    /**
+     * Path to pooled instance index
+     */
+    private final Map<String, StatusVariablePath> paths = new ConcurrentHashMap<String, StatusVariablePath>();
+    /**
+     * Monitorable Id to StatusVariable Id to pooled instance index
+     */
+    private final Map<String, Map<String, StatusVariablePath>> monitorables =
+            new ConcurrentHashMap<String, Map<String, StatusVariablePath>>();
+
+    public StatusVariablePathPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public StatusVariablePathPool(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * Create pool
+     *
+     * @param maxSize  maximum number of pooled paths
+     * @param registry registered <code>Monitorable</code>s, if <code>null</code> - paths of all
+     *                 <code>Monitorable</code>s are pooled
+     */
+    public StatusVariablePathPool(int maxSize, MonitorableRegistry registry) {
+        this.maxSize = maxSize;
+        this.registry = registry;
+    }
+
+    /**
+     * Get path by its string value
+     *
+     * @param path path value
+     * @return validated path
+     * @throws IllegalArgumentException path is <code>null</code> or invalid
+     */
+    public StatusVariablePath get(String path) throws IllegalArgumentException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path is null");
+        }
+        StatusVariablePath result = paths.get(path);
+        if (result == null) {
+            result = intern(new StatusVariablePath(path));
+        }
+        return result;
+    }
+
+    /**
+     * Get path by monitorableId and StatusVariable Id
+     *
+     * @param monitorableId    monitorableId value
+     * @param statusVariableId status variable Id value
+     * @return validated path
+     * @throws IllegalArgumentException ids are <code>null</code> or invalid
+     */
+    public StatusVariablePath get(String monitorableId, String statusVariableId) throws IllegalArgumentException {
+        if (monitorableId != null && statusVariableId != null) {
+            Map<String, StatusVariablePath> statusVariables = monitorables.get(monitorableId);
+            if (statusVariables != null) {
+                StatusVariablePath result = statusVariables.get(statusVariableId);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return intern(new StatusVariablePath(monitorableId, statusVariableId));
+    }
+
+    /**
+     * Evict all paths of <code>Monitorable</code>
+     *
+     * @param monitorableId monitorable Id
+     */
+    public synchronized void evict(String monitorableId) {
+        Map<String, StatusVariablePath> statusVariables = monitorables.remove(monitorableId);
+        if (statusVariables != null) {
+            for (StatusVariablePath path : statusVariables.values()) {
+                paths.remove(path.getPath());
+            }
+        }
+    }
+
+    /**
+     * Get number of pooled paths
+     *
+     * @return pool size
+     */
+    public int size() {
+        return paths.size();
+    }
+
+    private synchronized StatusVariablePath intern(StatusVariablePath path) {
+        StatusVariablePath pooled = paths.get(path.getPath());
+        if (pooled != null) {
+            return pooled;
+        }
+        if (paths.size() >= maxSize) {
+            // pool is full
+            return path;
+        }
+        // registration is checked under the pool lock: Monitorable that departs after the check
+        // is evicted after the path is pooled
+        if (registry != null && !registry.isRegistered(path.getMonitorableId())) {
+            return path;
+        }
+        Map<String, StatusVariablePath> statusVariables = monitorables.get(path.getMonitorableId());
+        if (statusVariables == null) {
+            statusVariables = new ConcurrentHashMap<String, StatusVariablePath>();
+            monitorables.put(path.getMonitorableId(), statusVariables);
+        }
+        statusVariables.put(path.getStatusVariableId(), path);
+        paths.put(path.getPath(), path);
+        return path;
+    }
+
+    /**
+     * Registered <code>Monitorable</code>s
+     */
+    public interface MonitorableRegistry {
+        /**
+         * Check if <code>Monitorable</code> is registered
+         *
+         * @param monitorableId monitorable Id
+         * @return <code>true</code> - <code>Monitorable</code> is registered
+         */
+        boolean isRegistered(String monitorableId);
+    }
+}
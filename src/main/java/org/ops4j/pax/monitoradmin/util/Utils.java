@@ -18,7 +18,6 @@ package org.ops4j.pax.monitoradmin.util;
 
 import org.osgi.framework.Constants;
 
-import java.util.regex.Pattern;
 
 /**
  * Utils class
@@ -27,13 +26,43 @@ import java.util.regex.Pattern;
  */
 public class Utils {
     /**
-     * MonitorableId and Status variable name validate pattern (OSGi core 1.3.2: symbolic-name)
+     * Maximum length of <code>Monitorable</code> and <code>StatusVariable</code> names (OSGi CMPN 119.1)
      */
-    private static final Pattern PATH_ID_VALIDATE_PATTERN = Pattern.compile("((\\w|_|-)+)(\\.(\\w|_|-)+)*");
+    public static final int MAX_ID_LENGTH = 32;
+
+    /**
+     * Character class: letter, digit, '_' or '-'
+     */
+    private static final byte WORD = 1;
     /**
-     * MonitorableId and Status variable name validate pattern (OSGi CMPN 119.6.1: wildcard-pid)
+     * Character class: '.'
      */
-    private static final Pattern FILTER_ID_VALIDATE_PATTERN = Pattern.compile("(\\*)|(((\\w|_|-)+)(\\.(\\w|_|-)*)*)(\\*)?");
+    private static final byte DOT = 2;
+    /**
+     * Character class: '*'
+     */
+    private static final byte WILDCARD = 4;
+    /**
+     * Character classes of Latin-1 characters, other characters are invalid
+     */
+    private static final byte[] CHAR_CLASSES = new byte[256];
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_CLASSES[c] = WORD;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CHAR_CLASSES[c] = WORD;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_CLASSES[c] = WORD;
+        }
+        CHAR_CLASSES['_'] = WORD;
+        CHAR_CLASSES['-'] = WORD;
+        CHAR_CLASSES['.'] = DOT;
+        CHAR_CLASSES['*'] = WILDCARD;
+    }
 
     /**
      * Create service filter for given monitorable Id
@@ -51,20 +80,105 @@ public class Utils {
     }
 
     /**
-     * Validate Path Id
+     * Validate Path Id (OSGi core 1.3.2: symbolic-name): token ( '.' token )*, token: [a-zA-Z0-9_-]+.
+     * Is used on the <code>updated()</code> hot path, so it does not allocate
      * @param id id
      * @return validation result
      */
     public static boolean validatePathId(String id) {
-        return PATH_ID_VALIDATE_PATTERN.matcher(id).matches();
+        int length = id.length();
+        boolean tokenStart = true;
+        for (int i = 0; i < length; i++) {
+            int charClass = charClass(id.charAt(i));
+            if (charClass == WORD) {
+                tokenStart = false;
+            } else if (charClass == DOT && !tokenStart) {
+                tokenStart = true;
+            } else {
+                return false;
+            }
+        }
+        return !tokenStart;
     }
 
     /**
-     * Validate Path Filter Id
+     * Validate Path Filter Id (OSGi CMPN 119.6.1: wildcard-pid): '*' or a token
+     * followed by any number of [a-zA-Z0-9_-.] characters and an optional trailing '*'
      * @param id id
      * @return validation result
      */
     public static boolean validatePathFilterId(String id) {
-        return FILTER_ID_VALIDATE_PATTERN.matcher(id).matches();
+        int length = id.length();
+        if (length == 0) {
+            return false;
+        }
+        if (id.charAt(length - 1) == '*') {
+            // trailing wildcard
+            length--;
+            if (length == 0) {
+                return true;
+            }
+        }
+        if (charClass(id.charAt(0)) != WORD) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            if ((charClass(id.charAt(i)) & (WORD | DOT)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Validate <code>Monitorable</code> or <code>StatusVariable</code> name: at most {@link #MAX_ID_LENGTH}
+     * bytes in UTF-8 encoding, symbolic-name characters only, not "." or "..".
+     * All allowed characters are encoded with one byte, so the length is checked without encoding
+     * @param id id
+     * @return validation result
+     */
+    public static boolean validateName(String id) {
+        int length = id.length();
+        if (length > MAX_ID_LENGTH) {
+            return false;
+        }
+        if (id.equals(".") || id.equals("..")) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if ((charClass(id.charAt(i)) & (WORD | DOT)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Escape id to be used as event topic token. Topic tokens may contain letters, digits, '_' and '-' only,
+     * so '_' and all other characters are replaced with '_' followed by two hex digits of the character code,
+     * e.g. "com.acme_pid" is escaped to "com_2eacme_5fpid"
+     * @param id valid id
+     * @return topic token
+     */
+    public static String escapeTopicToken(String id) {
+        StringBuilder result = null;
+        int length = id.length();
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c == '_' || charClass(c) != WORD) {
+                if (result == null) {
+                    result = new StringBuilder(length + 8);
+                    result.append(id, 0, i);
+                }
+                result.append('_').append(HEX_DIGITS[(c >> 4) & 0xf]).append(HEX_DIGITS[c & 0xf]);
+            } else if (result != null) {
+                result.append(c);
+            }
+        }
+        return result != null ? result.toString() : id;
+    }
+
+    private static int charClass(char c) {
+        return c < 256 ? CHAR_CLASSES[c] : 0;
     }
 }
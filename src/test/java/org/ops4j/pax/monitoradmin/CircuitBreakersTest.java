@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.api.CircuitState;
+import org.ops4j.pax.monitoradmin.api.MonitorableUnavailableException;
+import org.ops4j.pax.monitoradmin.mocks.MockLogVisitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author dmytro.pishchukhin
+ */
+public class CircuitBreakersTest {
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long OPEN_PERIOD = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    public void testErrorRate() throws Exception {
+        CircuitBreakers breakers = new CircuitBreakers(new MockLogVisitor(), 0.5, LATENCY, OPEN_PERIOD);
+        Assert.assertNull(breakers.getHealth("pid1"));
+
+        // healthy calls and rare errors keep breaker closed
+        for (int i = 0; i < 20; i++) {
+            breakers.acquire("pid1").record(1000, i % 5 == 0);
+        }
+        Assert.assertEquals(CircuitState.CLOSED, breakers.getHealth("pid1").getState());
+
+        for (int i = 0; i < 20 && breakers.getHealth("pid1").getState() == CircuitState.CLOSED; i++) {
+            breakers.acquire("pid1").record(1000, true);
+        }
+        Assert.assertEquals(CircuitState.OPEN, breakers.getHealth("pid1").getState());
+        Assert.assertTrue(breakers.getHealth("pid1").getErrorRate() >= 0.5);
+        try {
+            breakers.acquire("pid1");
+            Assert.fail();
+        } catch (MonitorableUnavailableException e) {
+        }
+        // other Monitorables are not affected
+        breakers.acquire("pid2").record(1000, false);
+        Assert.assertEquals(2, breakers.getHealth().length);
+
+        // failed trial opens breaker again
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(OPEN_PERIOD) * 2);
+        Assert.assertEquals(CircuitState.HALF_OPEN, breakers.getHealth("pid1").getState());
+        CircuitBreakers.Call trial = breakers.acquire("pid1");
+        try {
+            breakers.acquire("pid1");
+            Assert.fail();
+        } catch (MonitorableUnavailableException e) {
+        }
+        trial.record(1000, true);
+        Assert.assertEquals(CircuitState.OPEN, breakers.getHealth("pid1").getState());
+
+        // successful trial closes breaker
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(OPEN_PERIOD) * 2);
+        breakers.acquire("pid1").record(1000, false);
+        Assert.assertEquals(CircuitState.CLOSED, breakers.getHealth("pid1").getState());
+        Assert.assertEquals(0.0, breakers.getHealth("pid1").getErrorRate(), 0);
+        breakers.acquire("pid1");
+
+        breakers.remove("pid1");
+        Assert.assertNull(breakers.getHealth("pid1"));
+    }
+
+    @Test
+    public void testLatency() throws Exception {
+        CircuitBreakers breakers = new CircuitBreakers(new MockLogVisitor(), 0.5, LATENCY, OPEN_PERIOD);
+        for (int i = 0; i < 9; i++) {
+            breakers.acquire("pid1").record(LATENCY * 2, false);
+        }
+        // breaker is not opened until enough calls are recorded
+        Assert.assertEquals(CircuitState.CLOSED, breakers.getHealth("pid1").getState());
+        breakers.acquire("pid1").record(LATENCY * 2, false);
+        Assert.assertEquals(CircuitState.OPEN, breakers.getHealth("pid1").getState());
+        Assert.assertEquals(LATENCY * 2, breakers.getHealth("pid1").getAverageLatency());
+
+        // slow trial opens breaker again
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(OPEN_PERIOD) * 2);
+        breakers.acquire("pid1").record(LATENCY, false);
+        Assert.assertEquals(CircuitState.OPEN, breakers.getHealth("pid1").getState());
+    }
+
+    @Test
+    public void testHungCall() throws Exception {
+        CircuitBreakers breakers = new CircuitBreakers(new MockLogVisitor(), 0.5, LATENCY, OPEN_PERIOD);
+        CircuitBreakers.Call hung = breakers.acquire("pid1");
+        // concurrent calls are passed until the call runs longer than the latency threshold
+        breakers.acquire("pid1").record(1000, false);
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(LATENCY) * 2);
+
+        try {
+            breakers.acquire("pid1");
+            Assert.fail();
+        } catch (MonitorableUnavailableException e) {
+        }
+        Assert.assertEquals(CircuitState.OPEN, breakers.getHealth("pid1").getState());
+
+        // no trial while the call is hung
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(OPEN_PERIOD) * 2);
+        Assert.assertEquals(CircuitState.OPEN, breakers.getHealth("pid1").getState());
+        try {
+            breakers.acquire("pid1");
+            Assert.fail();
+        } catch (MonitorableUnavailableException e) {
+        }
+
+        // trial is passed when the call returns
+        hung.record(LATENCY * 3, false);
+        breakers.acquire("pid1").record(1000, false);
+        Assert.assertEquals(CircuitState.CLOSED, breakers.getHealth("pid1").getState());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.api.ReadStatus;
+import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
+import org.osgi.service.event.Event;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * @author dmytro.pishchukhin
+ */
+public class EventFactoryTest {
+    @Test
+    public void testCreateEvent() {
+        EventFactory factory = new EventFactory(false, TopicScheme.STANDARD);
+
+        Event event = factory.createEvents("pid1", new StatusVariable("sv1", StatusVariable.CM_CC, 5), null)[0];
+        Assert.assertEquals(ConstantsMonitorAdmin.TOPIC, event.getTopic());
+        Assert.assertEquals("pid1", event.getProperty(ConstantsMonitorAdmin.MON_MONITORABLE_PID));
+        Assert.assertEquals("sv1", event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME));
+        Assert.assertEquals("5", event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+        Assert.assertNull(event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_TIMESTAMP));
+        Assert.assertNull(event.getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("event.topics", ConstantsMonitorAdmin.MON_MONITORABLE_PID,
+                ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME, ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE)),
+                new HashSet<String>(Arrays.asList(event.getPropertyNames())));
+
+        event = factory.createEvents("pid1", new StatusVariable("sv2", StatusVariable.CM_CC, 1.5f), "init")[0];
+        Assert.assertEquals("sv2", event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME));
+        Assert.assertEquals("1.5", event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+        Assert.assertEquals("init", event.getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+
+        event = factory.createEvents("pid1", new StatusVariable("sv3", StatusVariable.CM_CC, true), null)[0];
+        Assert.assertEquals("true", event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+    }
+
+    @Test
+    public void testCreateEvent_Typed() {
+        EventFactory factory = new EventFactory(true, TopicScheme.STANDARD);
+
+        StatusVariable statusVariable = new StatusVariable("sv1", StatusVariable.CM_CC, 5);
+        Event event = factory.createEvents("pid1", statusVariable, "init")[0];
+        Assert.assertEquals(5, event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+        Assert.assertEquals(statusVariable.getTimeStamp().getTime(),
+                event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_TIMESTAMP));
+        Assert.assertEquals("init", event.getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+        Assert.assertEquals(6, event.getPropertyNames().length);
+
+        event = factory.createEvents("pid1", new StatusVariable("sv2", StatusVariable.CM_CC, 1.5f), null)[0];
+        Assert.assertEquals(1.5f, event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+        Assert.assertNull(event.getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+
+        event = factory.createEvents("pid1", new StatusVariable("sv3", StatusVariable.CM_CC, false), null)[0];
+        Assert.assertEquals(Boolean.FALSE, event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+
+        event = factory.createEvents("pid1", new StatusVariable("sv4", StatusVariable.CM_CC, "text"), null)[0];
+        Assert.assertEquals("text", event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+    }
+
+    @Test
+    public void testCreateEvents_Topics() {
+        StatusVariable statusVariable = new StatusVariable("sv_1.id", StatusVariable.CM_CC, 5);
+
+        Event[] events = new EventFactory(false, TopicScheme.STANDARD).createEvents("com.acme-pid", statusVariable, null);
+        Assert.assertEquals(1, events.length);
+        Assert.assertEquals(ConstantsMonitorAdmin.TOPIC, events[0].getTopic());
+
+        events = new EventFactory(false, TopicScheme.BOTH).createEvents("com.acme-pid", statusVariable, null);
+        Assert.assertEquals(2, events.length);
+        Assert.assertEquals(ConstantsMonitorAdmin.TOPIC, events[0].getTopic());
+        Assert.assertEquals("org/osgi/service/monitor/com_2eacme-pid/sv_5f1_2eid", events[1].getTopic());
+        Assert.assertEquals("com.acme-pid", events[1].getProperty(ConstantsMonitorAdmin.MON_MONITORABLE_PID));
+        Assert.assertEquals("sv_1.id", events[1].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME));
+        Assert.assertEquals("5", events[1].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+    }
+
+    @Test
+    public void testCreateBatchEvent() {
+        StatusVariable[] statusVariables = new StatusVariable[]{new StatusVariable("sv1", StatusVariable.CM_CC, 5),
+                new StatusVariable("sv2", StatusVariable.CM_CC, 1.5f), new StatusVariable("sv1", StatusVariable.CM_CC, true),
+                new StatusVariable("sv3", StatusVariable.CM_CC, "abc"), null};
+        StatusVariablePath[] paths = new StatusVariablePath[]{new StatusVariablePath("pid1/sv1"),
+                new StatusVariablePath("pid1/sv2"), new StatusVariablePath("pid2/sv1"),
+                new StatusVariablePath("pid2/sv3"), new StatusVariablePath("pid3/sv4")};
+        ReadStatus[] statuses = new ReadStatus[]{ReadStatus.OK, ReadStatus.OK, ReadStatus.OK, ReadStatus.OK,
+                ReadStatus.ERROR};
+
+        Event event = new EventFactory(false, TopicScheme.BOTH).createBatchEvent(paths, statusVariables, statuses,
+                null);
+        Assert.assertEquals(ConstantsMonitorAdmin.BATCH_TOPIC, event.getTopic());
+        Assert.assertArrayEquals(new String[]{"pid1", "pid1", "pid2", "pid2", "pid3"},
+                (String[]) event.getProperty(ConstantsMonitorAdmin.MON_MONITORABLE_PIDS));
+        Assert.assertArrayEquals(new String[]{"sv1", "sv2", "sv1", "sv3", "sv4"},
+                (String[]) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAMES));
+        Assert.assertArrayEquals(new String[]{"OK", "OK", "OK", "OK", "ERROR"},
+                (String[]) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_STATUSES));
+        int[] types = (int[]) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_TYPES);
+        Assert.assertEquals(StatusVariable.TYPE_INTEGER, types[0]);
+        Assert.assertEquals(StatusVariable.TYPE_FLOAT, types[1]);
+        Assert.assertEquals(StatusVariable.TYPE_BOOLEAN, types[2]);
+        Assert.assertEquals(StatusVariable.TYPE_STRING, types[3]);
+        Assert.assertEquals(5, ((int[]) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_INTEGER_VALUES))[0]);
+        Assert.assertEquals(1.5f, ((float[]) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_FLOAT_VALUES))[1],
+                0f);
+        Assert.assertTrue(((boolean[]) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_BOOLEAN_VALUES))[2]);
+        String[] stringValues = (String[]) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_STRING_VALUES);
+        Assert.assertEquals("abc", stringValues[3]);
+        Assert.assertNull(stringValues[4]);
+        long[] timestamps = (long[]) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_TIMESTAMPS);
+        Assert.assertEquals(5, timestamps.length);
+        Assert.assertEquals(statusVariables[0].getTimeStamp().getTime(), timestamps[0]);
+        Assert.assertEquals(0, timestamps[4]);
+        Assert.assertNull(event.getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+
+        event = new EventFactory(true, TopicScheme.STANDARD).createBatchEvent(paths, statusVariables, statuses,
+                "init");
+        Assert.assertEquals(5, ((int[]) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_INTEGER_VALUES))[0]);
+        Assert.assertEquals("init", event.getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.util.EventSwitches;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author dmytro.pishchukhin
+ */
+public class EventSwitchesTest {
+    @Test
+    public void testSwitchEvents() {
+        EventSwitches switches = new EventSwitches();
+        Assert.assertTrue(switches.isEnabled("pid1", "sv1"));
+
+        switches.switchEvents("pid1", Arrays.asList("sv1", "sv2"), false);
+        Assert.assertFalse(switches.isEnabled("pid1", "sv1"));
+        Assert.assertFalse(switches.isEnabled("pid1", "sv2"));
+        Assert.assertTrue(switches.isEnabled("pid1", "sv3"));
+        Assert.assertTrue(switches.isEnabled("pid2", "sv1"));
+        Assert.assertEquals(2, switches.getDisabledPaths().length);
+
+        switches.switchEvents("pid1", Arrays.asList("sv1", "sv3"), true);
+        Assert.assertTrue(switches.isEnabled("pid1", "sv1"));
+        Assert.assertFalse(switches.isEnabled("pid1", "sv2"));
+        Assert.assertArrayEquals(new String[]{"pid1/sv2"}, switches.getDisabledPaths());
+
+        switches.switchEvents("pid1", Arrays.asList("sv2"), true);
+        Assert.assertTrue(switches.isEnabled("pid1", "sv2"));
+        Assert.assertEquals(0, switches.getDisabledPaths().length);
+    }
+
+    @Test
+    public void testSwitchEvents_Bulk() {
+        EventSwitches switches = new EventSwitches();
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add("sv" + i);
+        }
+        switches.switchEvents("pid1", ids.subList(0, 10), false);
+        switches.switchEvents("pid1", ids, false);
+        Assert.assertEquals(1000, switches.getDisabledPaths().length);
+        for (String id : ids) {
+            Assert.assertFalse(switches.isEnabled("pid1", id));
+        }
+
+        switches.switchEvents("pid1", ids.subList(500, 1000), true);
+        Assert.assertEquals(500, switches.getDisabledPaths().length);
+        Assert.assertFalse(switches.isEnabled("pid1", "sv499"));
+        Assert.assertTrue(switches.isEnabled("pid1", "sv500"));
+    }
+
+    @Test
+    public void testSwitchEvents_OrdinalsReuse() {
+        EventSwitches switches = new EventSwitches();
+        switches.switchEvents("pid1", Arrays.asList("sv.fixed"), false);
+        for (int i = 0; i < 1000; i++) {
+            List<String> ids = Arrays.asList("sv" + i + ".1", "sv" + i + ".2");
+            switches.switchEvents("pid1", ids, false);
+            Assert.assertEquals(3, switches.getOrdinalCount("pid1"));
+            switches.switchEvents("pid1", ids, true);
+            Assert.assertEquals(1, switches.getOrdinalCount("pid1"));
+            Assert.assertTrue(switches.isEnabled("pid1", "sv" + i + ".1"));
+        }
+        Assert.assertFalse(switches.isEnabled("pid1", "sv.fixed"));
+        Assert.assertArrayEquals(new String[]{"pid1/sv.fixed"}, switches.getDisabledPaths());
+
+        switches.switchEvents("pid1", Arrays.asList("sv.fixed"), true);
+        Assert.assertEquals(0, switches.getOrdinalCount("pid1"));
+        Assert.assertEquals(0, switches.getDisabledPaths().length);
+    }
+}
@@ -20,6 +20,9 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.ops4j.pax.monitoradmin.api.ExtendedMonitorAdmin;
+import org.ops4j.pax.monitoradmin.api.ReadResult;
+import org.ops4j.pax.monitoradmin.api.ReadStatus;
 import org.ops4j.pax.monitoradmin.mocks.*;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.ServiceReference;
@@ -47,7 +50,7 @@ public class MonitorAdminImplSecurityTest {
     @After
     public void uninit() {
         if (common != null) {
-            common.cancelAllJobs();
+            common.shutdown();
         }
     }
 
@@ -1294,4 +1297,143 @@ public class MonitorAdminImplSecurityTest {
         scheduleJob.stop();
         job.stop();
     }
+
+    @Test
+    public void testSecurityMode() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        map.put(new MonitorableMockServiceReference(createMockBundle(new MonitorPermission("*/*", MonitorPermission.PUBLISH)),
+                "com.acme.pid"), new MockMonitorable(new StatusVariable("sv.id", StatusVariable.CM_CC, 0)));
+        osgiVisitor.setReferences(map);
+
+        Bundle consumer = createMockBundle(new MonitorPermission("com.acme.pid/sv.id2", MonitorPermission.READ));
+
+        MonitorAdmin monitorAdmin = (MonitorAdmin) new MonitorAdminFactory(logVisitor, common, SecurityMode.ENABLED)
+                .getService(consumer, null);
+        Assert.assertFalse(monitorAdmin instanceof UnsecuredMonitorAdminImpl);
+        try {
+            monitorAdmin.getStatusVariable("com.acme.pid/sv.id");
+            Assert.fail();
+        } catch (SecurityException e) {
+        }
+
+        monitorAdmin = (MonitorAdmin) new MonitorAdminFactory(logVisitor, common, SecurityMode.DISABLED)
+                .getService(consumer, null);
+        Assert.assertTrue(monitorAdmin instanceof UnsecuredMonitorAdminImpl);
+        Assert.assertEquals("sv.id", monitorAdmin.getStatusVariable("com.acme.pid/sv.id").getID());
+        Assert.assertArrayEquals(new String[]{"sv.id"}, monitorAdmin.getStatusVariableNames("com.acme.pid"));
+        try {
+            monitorAdmin.getStatusVariable("com.acme.pid/sv.id2");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        // AUTO mode checks permissions only if SecurityManager is installed
+        monitorAdmin = (MonitorAdmin) new MonitorAdminFactory(logVisitor, common, SecurityMode.AUTO)
+                .getService(consumer, null);
+        Assert.assertEquals(System.getSecurityManager() == null, monitorAdmin instanceof UnsecuredMonitorAdminImpl);
+    }
+
+    @Test
+    public void testPermissionCache() throws Exception {
+        // decisions are not cached by default
+        Assert.assertNull(common.getPermissionCache());
+        common.shutdown();
+
+        MonitorAdminConfiguration configuration = new MonitorAdminConfiguration();
+        configuration.setPermissionCacheTtl(60000);
+        configuration.setSecurityMode(SecurityMode.DISABLED);
+        common = new MonitorAdminCommon(osgiVisitor, logVisitor, configuration);
+        // unsecured MonitorAdmin instances do not check permissions
+        Assert.assertNull(common.getPermissionCache());
+        common.shutdown();
+
+        configuration.setSecurityMode(SecurityMode.ENABLED);
+        common = new MonitorAdminCommon(osgiVisitor, logVisitor, configuration);
+        Assert.assertNotNull(common.getPermissionCache());
+    }
+
+    @Test
+    public void testReadStatusVariables() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        map.put(new MonitorableMockServiceReference(createMockBundle(new MonitorPermission("*/*", MonitorPermission.PUBLISH)),
+                "com.acme.pid1"), new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 1),
+                new StatusVariable("sv.id2", StatusVariable.CM_CC, 2)));
+        map.put(new MonitorableMockServiceReference(createMockBundle(new MonitorPermission("*/*", MonitorPermission.PUBLISH)),
+                "com.acme.pid2"), new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 3)) {
+            @Override
+            public StatusVariable getStatusVariable(String s) throws IllegalArgumentException {
+                throw new IllegalStateException();
+            }
+        });
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, createMockBundle(
+                new MonitorPermission("com.acme.pid1/sv.id1", MonitorPermission.READ),
+                new MonitorPermission("com.acme.pid2/*", MonitorPermission.READ)));
+
+        try {
+            monitorAdmin.readStatusVariables(null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        String[] paths = {"com.acme.pid1/sv.id1", null, "com.acme.pid1/sv.id2", "com.acme.pid1/sv.id3",
+                "com.acme.pid3/sv.id1", "com.acme.pid2/sv.id1", "com.acme.pid1/sv.id1"};
+        ReadResult[] results = monitorAdmin.readStatusVariables(paths);
+        Assert.assertEquals(paths.length, results.length);
+        ReadStatus[] statuses = {ReadStatus.OK, ReadStatus.INVALID_PATH, ReadStatus.ACCESS_DENIED, ReadStatus.NOT_FOUND,
+                ReadStatus.NOT_FOUND, ReadStatus.ERROR, ReadStatus.OK};
+        for (int i = 0; i < paths.length; i++) {
+            Assert.assertEquals(paths[i], results[i].getPath());
+            Assert.assertEquals(statuses[i], results[i].getStatus());
+            Assert.assertEquals(statuses[i] == ReadStatus.OK, results[i].getStatusVariable() != null);
+        }
+        Assert.assertEquals(1, results[0].getStatusVariable().getInteger());
+    }
+
+    @Test
+    public void testReadSnapshot() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        map.put(new MonitorableMockServiceReference(createMockBundle(new MonitorPermission("*/*", MonitorPermission.PUBLISH)),
+                "com.acme.pid2"), new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 3),
+                new StatusVariable("sv.id2", StatusVariable.CM_CC, 4)));
+        map.put(new MonitorableMockServiceReference(createMockBundle(new MonitorPermission("*/*", MonitorPermission.PUBLISH)),
+                "com.acme.pid1"), new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 1),
+                new StatusVariable("sv.id2", StatusVariable.CM_CC, 2), new StatusVariable("other.id", StatusVariable.CM_CC, 0)));
+        map.put(new MonitorableMockServiceReference(createMockBundle(new MonitorPermission("*/*", MonitorPermission.READ)),
+                "com.acme.pid3"), new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 5)));
+        map.put(new MonitorableMockServiceReference(createMockBundle(new MonitorPermission("*/*", MonitorPermission.PUBLISH)),
+                "org.acme.pid"), new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 6)));
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, createMockBundle(
+                new MonitorPermission("com.acme.pid1/*", MonitorPermission.READ),
+                new MonitorPermission("com.acme.pid2/sv.id1", MonitorPermission.READ),
+                new MonitorPermission("com.acme.pid3/*", MonitorPermission.READ),
+                new MonitorPermission("org.acme.pid/*", MonitorPermission.READ)));
+
+        try {
+            monitorAdmin.readSnapshot(null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        try {
+            monitorAdmin.readSnapshot("com.acme.pid*");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        ReadResult[] results = monitorAdmin.readSnapshot("com.acme.pid*/sv.*");
+        Assert.assertEquals(3, results.length);
+        Assert.assertEquals("com.acme.pid1/sv.id1", results[0].getPath());
+        Assert.assertEquals("com.acme.pid1/sv.id2", results[1].getPath());
+        Assert.assertEquals("com.acme.pid2/sv.id1", results[2].getPath());
+        for (int i = 0; i < results.length; i++) {
+            Assert.assertEquals(ReadStatus.OK, results[i].getStatus());
+            Assert.assertEquals(i + 1, results[i].getStatusVariable().getInteger());
+        }
+
+        Assert.assertEquals(0, monitorAdmin.readSnapshot("com.acme.pid3/*").length);
+    }
 }
@@ -18,8 +18,16 @@ package org.ops4j.pax.monitoradmin;
 
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
+import org.ops4j.pax.monitoradmin.api.ExtendedMonitorAdmin;
+import org.ops4j.pax.monitoradmin.api.ExtendedMonitoringJob;
+import org.ops4j.pax.monitoradmin.api.MissedTickPolicy;
+import org.ops4j.pax.monitoradmin.api.MonitorableUnavailableException;
+import org.ops4j.pax.monitoradmin.api.ReadResult;
+import org.ops4j.pax.monitoradmin.api.ReadStatus;
+import org.ops4j.pax.monitoradmin.job.ScheduledMonitoringJob;
 import org.ops4j.pax.monitoradmin.mocks.MockLogVisitor;
 import org.ops4j.pax.monitoradmin.mocks.MockMonitorable;
 import org.ops4j.pax.monitoradmin.mocks.MockOsgiVisitor;
@@ -32,8 +40,16 @@ import org.osgi.service.monitor.Monitorable;
 import org.osgi.service.monitor.MonitoringJob;
 import org.osgi.service.monitor.StatusVariable;
 
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author dmytro.pishchukhin
@@ -54,7 +70,7 @@ public class MonitorAdminImplTest {
     @After
     public void uninit() {
         if (common != null) {
-            common.cancelAllJobs();
+            common.shutdown();
         }
     }
 
@@ -144,6 +160,157 @@ public class MonitorAdminImplTest {
 
     }
 
+    @Test
+    public void testGetStatusVariable_PublishedNamesCache() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        final AtomicInteger namesRequests = new AtomicInteger();
+        MockMonitorable monitorable = new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0)) {
+            @Override
+            public String[] getStatusVariableNames() {
+                namesRequests.incrementAndGet();
+                return super.getStatusVariableNames();
+            }
+        };
+
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        MonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("sv.id1", monitorAdmin.getStatusVariable("com.acme.pid/sv.id1").getID());
+        }
+        Assert.assertEquals(1, namesRequests.get());
+
+        // StatusVariable that is published later is found
+        monitorable.setStatusVariables(new StatusVariable("sv.id2", StatusVariable.CM_CC, 0));
+        Assert.assertEquals("sv.id2", monitorAdmin.getStatusVariable("com.acme.pid/sv.id2").getID());
+        Assert.assertEquals(2, namesRequests.get());
+
+        try {
+            monitorAdmin.getStatusVariable("com.acme.pid/sv.id3");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testReadStatusVariables_Timeout() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        final CountDownLatch release = new CountDownLatch(1);
+        map.put(new MonitorableMockServiceReference("com.acme.slow"),
+                new MockMonitorable(new StatusVariable("sv.id", StatusVariable.CM_CC, 0)) {
+                    @Override
+                    public StatusVariable getStatusVariable(String s) throws IllegalArgumentException {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            // read is cancelled
+                        }
+                        return super.getStatusVariable(s);
+                    }
+                });
+        map.put(new MonitorableMockServiceReference("com.acme.fast"),
+                new MockMonitorable(new StatusVariable("sv.id", StatusVariable.CM_CC, 1)));
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+        try {
+            try {
+                monitorAdmin.readStatusVariables(new String[0], -1, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+            }
+
+            ReadResult[] results = monitorAdmin.readStatusVariables(new String[]{"com.acme.slow/sv.id",
+                    "com.acme.fast/sv.id", "com.acme.none/sv.id"}, 200, TimeUnit.MILLISECONDS);
+            Assert.assertEquals(ReadStatus.TIMEOUT, results[0].getStatus());
+            Assert.assertEquals(ReadStatus.OK, results[1].getStatus());
+            Assert.assertEquals(1, results[1].getStatusVariable().getInteger());
+            Assert.assertEquals(ReadStatus.NOT_FOUND, results[2].getStatus());
+
+            Future<StatusVariable> fast = monitorAdmin.getStatusVariableAsync("com.acme.fast/sv.id");
+            Assert.assertEquals(1, fast.get(5, TimeUnit.SECONDS).getInteger());
+
+            Future<StatusVariable> slow = monitorAdmin.getStatusVariableAsync("com.acme.slow/sv.id");
+            try {
+                slow.get(50, TimeUnit.MILLISECONDS);
+                Assert.fail();
+            } catch (TimeoutException e) {
+            }
+            release.countDown();
+            Assert.assertEquals(0, slow.get(5, TimeUnit.SECONDS).getInteger());
+
+            try {
+                monitorAdmin.getStatusVariableAsync("com.acme.fast/sv.id2");
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testReadStatusVariables_HungMonitorables() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        final CountDownLatch release = new CountDownLatch(1);
+        // more hung Monitorables than reader threads, interrupts are ignored
+        int hungCount = MonitorAdminConfiguration.DEFAULT_READER_THREADS + 2;
+        String[] hungPaths = new String[hungCount];
+        for (int i = 0; i < hungCount; i++) {
+            hungPaths[i] = "com.acme.hung" + i + "/sv.id";
+            map.put(new MonitorableMockServiceReference("com.acme.hung" + i),
+                    new MockMonitorable(new StatusVariable("sv.id", StatusVariable.CM_CC, 0)) {
+                        @Override
+                        public StatusVariable getStatusVariable(String s) throws IllegalArgumentException {
+                            while (true) {
+                                try {
+                                    release.await();
+                                    return super.getStatusVariable(s);
+                                } catch (InterruptedException e) {
+                                    // cancellation is ignored
+                                }
+                            }
+                        }
+                    });
+        }
+        map.put(new MonitorableMockServiceReference("com.acme.fast"),
+                new MockMonitorable(new StatusVariable("sv.id", StatusVariable.CM_CC, 1)));
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+        try {
+            ReadResult[] results = monitorAdmin.readStatusVariables(hungPaths, 100, TimeUnit.MILLISECONDS);
+            for (ReadResult result : results) {
+                Assert.assertEquals(ReadStatus.TIMEOUT, result.getStatus());
+            }
+
+            for (int attempt = 0; attempt < 3; attempt++) {
+                String[] paths = new String[hungCount + 1];
+                System.arraycopy(hungPaths, 0, paths, 0, hungCount);
+                paths[hungCount] = "com.acme.fast/sv.id";
+                results = monitorAdmin.readStatusVariables(paths, 200, TimeUnit.MILLISECONDS);
+                // hung Monitorables are not queued again while their reads are in progress
+                for (int i = 0; i < hungCount; i++) {
+                    Assert.assertTrue(results[i].toString(), results[i].getStatus() == ReadStatus.UNAVAILABLE
+                            || results[i].getStatus() == ReadStatus.TIMEOUT);
+                }
+                Assert.assertEquals(ReadStatus.OK, results[hungCount].getStatus());
+                Assert.assertEquals(1, results[hungCount].getStatusVariable().getInteger());
+            }
+
+            try {
+                monitorAdmin.getStatusVariableAsync(hungPaths[0]);
+                Assert.fail();
+            } catch (RejectedExecutionException e) {
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
     @Test
     public void testGetDescription() throws Exception {
         HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
@@ -580,6 +747,113 @@ public class MonitorAdminImplTest {
         Assert.assertNull(events[0].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
     }
 
+    @Test
+    public void testStartJob_MultipleSubscriptions() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        MockMonitorable monitorable = new MockMonitorable();
+
+        StatusVariable[] statusVariables = {
+                new StatusVariable("sv.id1", StatusVariable.CM_CC, 0),
+                new StatusVariable("sv.id2", StatusVariable.CM_CC, 0)
+        };
+        monitorable.setStatusVariables(statusVariables);
+        monitorable.setNotificationSupport("sv.id1", true);
+        monitorable.setNotificationSupport("sv.id2", true);
+
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        MonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+
+        monitorable.setListener(common);
+        monitorable.setMonitorableId("com.acme.pid");
+
+        MonitoringJob job1 = monitorAdmin.startJob("init1", new String[]{"com.acme.pid/sv.id1"}, 1);
+        MonitoringJob job2 = monitorAdmin.startJob("init2", new String[]{"com.acme.pid/sv.id1", "com.acme.pid/sv.id2"}, 1);
+
+        monitorable.setNewStatusVariableValue("sv.id2", "15");
+
+        Event[] events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals(2, events.length);
+        Assert.assertNull(events[0].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+        Assert.assertEquals("init2", events[1].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+
+        osgiVisitor.cleanPostedEvents();
+        monitorable.setNewStatusVariableValue("sv.id1", "15");
+
+        events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals(3, events.length);
+        Assert.assertEquals("init1", events[1].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+        Assert.assertEquals("init2", events[2].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+
+        job1.stop();
+        osgiVisitor.cleanPostedEvents();
+        monitorable.setNewStatusVariableValue("sv.id1", "25");
+
+        events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals(2, events.length);
+        Assert.assertEquals("init2", events[1].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+
+        job2.stop();
+        osgiVisitor.cleanPostedEvents();
+        monitorable.setNewStatusVariableValue("sv.id1", "35");
+
+        events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals(1, events.length);
+    }
+
+    @Test
+    public void testUpdated_Batch() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        StatusVariable[] statusVariables = {
+                new StatusVariable("sv.id1", StatusVariable.CM_CC, 1),
+                new StatusVariable("sv.id2", StatusVariable.CM_CC, 2),
+                new StatusVariable("sv.id3", StatusVariable.CM_CC, 3)
+        };
+        MockMonitorable monitorable = new MockMonitorable(statusVariables);
+        monitorable.setNotificationSupport("sv.id2", true);
+
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        MonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+
+        try {
+            common.updated("com.acme.pid2", statusVariables);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            common.updated("com.acme.pid", (StatusVariable[]) null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            common.updated("com.acme.pid", new StatusVariable[]{statusVariables[0], null});
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        Assert.assertEquals(0, osgiVisitor.getPostedEvents().length);
+
+        monitorAdmin.switchEvents("com.acme.pid/sv.id3", false);
+        MonitoringJob job = monitorAdmin.startJob("init1", new String[]{"com.acme.pid/sv.id2"}, 1);
+
+        common.updated("com.acme.pid", statusVariables);
+
+        Event[] events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals(3, events.length);
+        Assert.assertEquals("sv.id1", events[0].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME));
+        Assert.assertNull(events[0].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+        Assert.assertEquals("sv.id2", events[1].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME));
+        Assert.assertNull(events[1].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+        Assert.assertEquals("sv.id2", events[2].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME));
+        Assert.assertEquals("init1", events[2].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+
+        job.stop();
+    }
+
     @Test
     public void testStartScheduledJob() throws Exception {
         HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
@@ -658,4 +932,343 @@ public class MonitorAdminImplTest {
         events = osgiVisitor.getPostedEvents();
         Assert.assertEquals(0, events.length);
     }
+
+    @Test
+    public void testStartScheduledJob_SharedScheduler() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        MockMonitorable monitorable = new MockMonitorable();
+        monitorable.setStatusVariables(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0));
+
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        MonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+
+        int schedulerThreads = countSchedulerThreads();
+
+        int jobsCount = 20;
+        for (int i = 0; i < jobsCount; i++) {
+            monitorAdmin.startScheduledJob("init" + i, new String[]{"com.acme.pid/sv.id1"}, 1, 0);
+        }
+
+        TimeUnit.MILLISECONDS.sleep(1500);
+
+        Event[] events = osgiVisitor.getPostedEvents();
+        Set<Object> initiators = new HashSet<Object>();
+        for (Event event : events) {
+            initiators.add(event.getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+        }
+        Assert.assertEquals(jobsCount, initiators.size());
+
+        Assert.assertTrue(countSchedulerThreads() - schedulerThreads <= MonitorAdminConfiguration.DEFAULT_SCHEDULER_THREADS);
+
+        common.shutdown();
+        Assert.assertEquals(0, monitorAdmin.getRunningJobs().length);
+    }
+
+    @Test
+    public void testStartScheduledJob_FixedRate() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        MockMonitorable monitorable = new MockMonitorable();
+        monitorable.setStatusVariables(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0));
+
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+
+        try {
+            monitorAdmin.startScheduledJob("init1", new String[]{"com.acme.pid/sv.id1"}, 0, TimeUnit.MILLISECONDS, 0,
+                    MissedTickPolicy.SKIP);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        try {
+            monitorAdmin.startScheduledJob("init1", new String[]{"com.acme.pid/sv.id1"}, 100, null, 0,
+                    MissedTickPolicy.SKIP);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        try {
+            monitorAdmin.startScheduledJob("init1", new String[]{"com.acme.pid/sv.id1"}, 100, TimeUnit.MILLISECONDS, 0,
+                    null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        try {
+            monitorAdmin.startScheduledJob("init1", new String[]{"com.acme.pid/sv.id11"}, 100, TimeUnit.MILLISECONDS, 0,
+                    MissedTickPolicy.SKIP);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        MonitoringJob job = monitorAdmin.startScheduledJob("init1", new String[]{"com.acme.pid/sv.id1"},
+                100, TimeUnit.MILLISECONDS, 0, MissedTickPolicy.CATCH_UP);
+        Assert.assertEquals(1, job.getSchedule());
+
+        TimeUnit.MILLISECONDS.sleep(1050);
+        job.stop();
+
+        // measurements at 0, 100, ..., 1000 ms
+        Event[] events = osgiVisitor.getPostedEvents();
+        Assert.assertTrue(String.valueOf(events.length), events.length >= 9 && events.length <= 12);
+        Assert.assertEquals("init1", events[0].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+        Assert.assertEquals(0, monitorAdmin.getRunningJobs().length);
+    }
+
+    @Test
+    public void testStartScheduledJob_SubSecondSchedule() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        MockMonitorable monitorable = new MockMonitorable();
+        monitorable.setStatusVariables(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0));
+
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+
+        ExtendedMonitoringJob job = monitorAdmin.startScheduledJob("init1", new String[]{"com.acme.pid/sv.id1"},
+                250, TimeUnit.MILLISECONDS, 0, MissedTickPolicy.SKIP);
+        // schedule 0 stands for change based job
+        Assert.assertTrue(job.getSchedule() >= 1);
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(250), job.getPeriodNanos());
+        Assert.assertEquals(MissedTickPolicy.SKIP, job.getPolicy());
+        Assert.assertTrue(job.isLocal());
+        Assert.assertTrue(job.isRunning());
+        Assert.assertEquals(1, monitorAdmin.getRunningJobs().length);
+
+        job.stop();
+        Assert.assertFalse(job.isRunning());
+        Assert.assertEquals(0, monitorAdmin.getRunningJobs().length);
+
+        Assert.assertEquals(1, ScheduledMonitoringJob.toSchedule(1));
+        Assert.assertEquals(1, ScheduledMonitoringJob.toSchedule(TimeUnit.SECONDS.toNanos(1)));
+        Assert.assertEquals(2, ScheduledMonitoringJob.toSchedule(TimeUnit.MILLISECONDS.toNanos(1001)));
+    }
+
+    @Test
+    public void testStartScheduledJob_TickCoalescing() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        final AtomicInteger reads = new AtomicInteger();
+        MockMonitorable monitorable = new MockMonitorable() {
+            @Override
+            public StatusVariable getStatusVariable(String id) throws IllegalArgumentException {
+                reads.incrementAndGet();
+                return super.getStatusVariable(id);
+            }
+        };
+        monitorable.setStatusVariables(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0));
+
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+
+        MonitoringJob job1 = monitorAdmin.startScheduledJob("init1", new String[]{"com.acme.pid/sv.id1"},
+                100, TimeUnit.MILLISECONDS, 0, MissedTickPolicy.CATCH_UP);
+        MonitoringJob job2 = monitorAdmin.startScheduledJob("init2", new String[]{"com.acme.pid/sv.id1"},
+                100, TimeUnit.MILLISECONDS, 0, MissedTickPolicy.CATCH_UP);
+
+        TimeUnit.MILLISECONDS.sleep(550);
+        job1.stop();
+        job2.stop();
+
+        // one read per tick is shared by both jobs, the last tick could measure only one of the stopped jobs
+        int events = osgiVisitor.getPostedEvents().length;
+        Assert.assertTrue(reads.get() + " " + events, reads.get() > 1 && events >= 2 * reads.get() - 1
+                && events <= 2 * reads.get());
+    }
+
+    @Test
+    public void testStartScheduledJob_BatchEvents() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        MockMonitorable monitorable = new MockMonitorable();
+        monitorable.setStatusVariables(new StatusVariable("sv.id1", StatusVariable.CM_CC, 5),
+                new StatusVariable("sv.id2", StatusVariable.CM_CC, "text"));
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        MockMonitorable monitorable1 = new MockMonitorable();
+        monitorable1.setStatusVariables(new StatusVariable("sv.id1", StatusVariable.CM_CC, true));
+        map.put(new MonitorableMockServiceReference("com.acme.pid1"), monitorable1);
+        MockMonitorable monitorable2 = new MockMonitorable() {
+            @Override
+            public StatusVariable getStatusVariable(String id) throws IllegalArgumentException {
+                throw new IllegalStateException("Monitorable failure");
+            }
+        };
+        monitorable2.setStatusVariables(new StatusVariable("sv.id1", StatusVariable.CM_CC, 1.5f));
+        map.put(new MonitorableMockServiceReference("com.acme.pid2"), monitorable2);
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+        String[] paths = new String[]{"com.acme.pid/sv.id1", "com.acme.pid/sv.id2", "com.acme.pid1/sv.id1",
+                "com.acme.pid2/sv.id1"};
+
+        // standard job posts standard events
+        MonitoringJob job = monitorAdmin.startScheduledJob("init1", paths, 5, 0);
+        TimeUnit.MILLISECONDS.sleep(200);
+        job.stop();
+
+        Event[] events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals(3, events.length);
+        for (Event event : events) {
+            Assert.assertEquals(ConstantsMonitorAdmin.TOPIC, event.getTopic());
+        }
+        osgiVisitor.cleanPostedEvents();
+
+        // batch job posts one event per tick with all measurements of the job
+        ExtendedMonitoringJob batchJob = monitorAdmin.startScheduledJob("init2", paths, 5, TimeUnit.SECONDS, 0,
+                MissedTickPolicy.SKIP, true);
+        Assert.assertTrue(batchJob.isBatch());
+        TimeUnit.MILLISECONDS.sleep(200);
+        batchJob.stop();
+
+        events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals(1, events.length);
+        Assert.assertEquals(ConstantsMonitorAdmin.BATCH_TOPIC, events[0].getTopic());
+        Assert.assertEquals("init2", events[0].getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID));
+        Assert.assertArrayEquals(new String[]{"com.acme.pid", "com.acme.pid", "com.acme.pid1", "com.acme.pid2"},
+                (String[]) events[0].getProperty(ConstantsMonitorAdmin.MON_MONITORABLE_PIDS));
+        Assert.assertArrayEquals(new String[]{"sv.id1", "sv.id2", "sv.id1", "sv.id1"},
+                (String[]) events[0].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAMES));
+        Assert.assertArrayEquals(new String[]{"OK", "OK", "OK", "ERROR"},
+                (String[]) events[0].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_STATUSES));
+        Assert.assertEquals(5, ((int[]) events[0].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_INTEGER_VALUES))[0]);
+        Assert.assertEquals("text",
+                ((String[]) events[0].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_STRING_VALUES))[1]);
+        Assert.assertTrue(((boolean[]) events[0].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_BOOLEAN_VALUES))[2]);
+    }
+
+    @Test
+    public void testCircuitBreaker_StandardReads() throws Exception {
+        common.shutdown();
+        MonitorAdminConfiguration configuration = new MonitorAdminConfiguration();
+        configuration.setBreakerOpenPeriod(30000);
+        common = new MonitorAdminCommon(osgiVisitor, logVisitor, configuration);
+
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        MockMonitorable monitorable = new MockMonitorable() {
+            @Override
+            public StatusVariable getStatusVariable(String id) throws IllegalArgumentException {
+                throw new IllegalStateException("Monitorable failure");
+            }
+        };
+        monitorable.setStatusVariables(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0));
+
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+
+        String[] paths = {"com.acme.pid/sv.id1"};
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(ReadStatus.ERROR, monitorAdmin.readStatusVariables(paths)[0].getStatus());
+        }
+        // extended reads are rejected by open breaker
+        Assert.assertEquals(ReadStatus.UNAVAILABLE, monitorAdmin.readStatusVariables(paths)[0].getStatus());
+
+        // standard reads still call the Monitorable
+        try {
+            monitorAdmin.getStatusVariable("com.acme.pid/sv.id1");
+            Assert.fail();
+        } catch (MonitorableUnavailableException e) {
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Monitorable failure", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testStartScheduledJob_SlowMonitorable() throws Exception {
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+
+        final AtomicInteger reads = new AtomicInteger();
+        MockMonitorable monitorable = new MockMonitorable() {
+            @Override
+            public StatusVariable getStatusVariable(String id) throws IllegalArgumentException {
+                if (reads.incrementAndGet() == 1) {
+                    // the first call is slower than the default breaker latency
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(1500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getStatusVariable(id);
+            }
+        };
+        monitorable.setStatusVariables(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0));
+
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        ExtendedMonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+
+        Future<StatusVariable> slowRead = monitorAdmin.getStatusVariableAsync("com.acme.pid/sv.id1");
+        TimeUnit.MILLISECONDS.sleep(50);
+        MonitoringJob job = monitorAdmin.startScheduledJob("init1", new String[]{"com.acme.pid/sv.id1"},
+                100, TimeUnit.MILLISECONDS, 0, MissedTickPolicy.SKIP);
+        TimeUnit.MILLISECONDS.sleep(2500);
+        job.stop();
+
+        // default configuration does not skip measurements while the slow call is in flight and after it
+        Assert.assertEquals("sv.id1", slowRead.get(1, TimeUnit.SECONDS).getID());
+        int events = osgiVisitor.getPostedEvents().length;
+        Assert.assertTrue(String.valueOf(events), events >= 15);
+        Assert.assertEquals(0, monitorAdmin.getMonitorableHealth().length);
+    }
+
+    @Test
+    public void testUpdated_NoAllocations() throws Exception {
+        java.lang.management.ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(mxBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) mxBean;
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        StatusVariable statusVariable = new StatusVariable("sv.id1", StatusVariable.CM_CC, 0);
+        MockMonitorable monitorable = new MockMonitorable(statusVariable,
+                new StatusVariable("sv.id2", StatusVariable.CM_CC, 0));
+        monitorable.setNotificationSupport("sv.id2", true);
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        MonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, bundle);
+        monitorAdmin.switchEvents("com.acme.pid/sv.id1", false);
+        // job is interested in another StatusVariable
+        monitorAdmin.startJob("init1", new String[]{"com.acme.pid/sv.id2"}, 1);
+
+        long threadId = Thread.currentThread().getId();
+        long allocated = 0;
+        for (int run = 0; run < 5; run++) {
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 10000; i++) {
+                common.updated("com.acme.pid", statusVariable);
+            }
+            long after = threadMXBean.getThreadAllocatedBytes(threadId);
+            long calibration = threadMXBean.getThreadAllocatedBytes(threadId);
+            allocated = (after - before) - (calibration - after);
+        }
+        Assert.assertEquals(0, allocated);
+        Assert.assertEquals(0, osgiVisitor.getPostedEvents().length);
+    }
+
+    private static int countSchedulerThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("MonitorAdmin Scheduler")) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.mocks.MockMonitorable;
+import org.ops4j.pax.monitoradmin.mocks.MonitorableMockServiceReference;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+import org.springframework.osgi.mock.MockBundleContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * @author dmytro.pishchukhin
+ */
+public class MonitorableTrackerTest {
+    private CountingBundleContext bc;
+    private MonitorableTracker tracker;
+
+    @Before
+    public void init() {
+        bc = new CountingBundleContext();
+        tracker = new MonitorableTracker(bc);
+    }
+
+    @Test
+    public void testHighestRankingIsIndexed() {
+        MonitorableMockServiceReference first = new MonitorableMockServiceReference("com.acme.pid");
+        MonitorableMockServiceReference second = new MonitorableMockServiceReference("com.acme.pid");
+        MonitorableMockServiceReference ranked = createReference("com.acme.pid", 10);
+
+        Assert.assertNull(tracker.findReference("com.acme.pid"));
+
+        tracker.addingService(second);
+        tracker.addingService(first);
+        // tie in ranking - service that was registered first
+        Assert.assertSame(first, tracker.findReference("com.acme.pid"));
+
+        tracker.addingService(ranked);
+        Assert.assertSame(ranked, tracker.findReference("com.acme.pid"));
+
+        tracker.removedService(ranked, ranked);
+        Assert.assertSame(first, tracker.findReference("com.acme.pid"));
+
+        tracker.removedService(first, first);
+        tracker.removedService(second, second);
+        Assert.assertNull(tracker.findReference("com.acme.pid"));
+    }
+
+    @Test
+    public void testModifiedService() {
+        MonitorableMockServiceReference reference = new MonitorableMockServiceReference("com.acme.pid1");
+        tracker.addingService(reference);
+        Assert.assertSame(reference, tracker.findReference("com.acme.pid1"));
+
+        Hashtable<String, Object> props = new Hashtable<String, Object>();
+        props.put(Constants.SERVICE_PID, "com.acme.pid2");
+        reference.setProperties(props);
+        tracker.modifiedService(reference, reference);
+
+        Assert.assertNull(tracker.findReference("com.acme.pid1"));
+        Assert.assertSame(reference, tracker.findReference("com.acme.pid2"));
+    }
+
+    @Test
+    public void testServiceWithoutPid() {
+        ServiceReference reference = new MonitorableMockServiceReference("com.acme.pid");
+        ((MonitorableMockServiceReference) reference).setProperties(new Hashtable<String, Object>());
+        Assert.assertNull(tracker.addingService(reference));
+    }
+
+    @Test
+    public void testServiceIsCachedAndReleased() {
+        MonitorableMockServiceReference reference = new MonitorableMockServiceReference("com.acme.pid");
+        tracker.addingService(reference);
+
+        Object monitorable = tracker.getMonitorable(reference);
+        Assert.assertNotNull(monitorable);
+        Assert.assertSame(monitorable, tracker.getMonitorable(reference));
+        Assert.assertEquals(1, bc.usageCount);
+
+        tracker.removedService(reference, reference);
+        Assert.assertEquals(0, bc.usageCount);
+
+        // untracked service is not cached
+        Assert.assertNull(tracker.getMonitorable(reference));
+        Assert.assertEquals(0, bc.usageCount);
+    }
+
+    @Test
+    public void testDepartureListener() {
+        final List<String> departed = new ArrayList<String>();
+        tracker.setDepartureListener(new MonitorableTracker.DepartureListener() {
+            public void monitorableDeparted(String monitorableId) {
+                departed.add(monitorableId);
+            }
+        });
+        MonitorableMockServiceReference first = new MonitorableMockServiceReference("com.acme.pid1");
+        MonitorableMockServiceReference second = new MonitorableMockServiceReference("com.acme.pid1");
+        tracker.addingService(first);
+        tracker.addingService(second);
+
+        tracker.removedService(first, first);
+        Assert.assertTrue(departed.isEmpty());
+
+        Hashtable<String, Object> props = new Hashtable<String, Object>();
+        props.put(Constants.SERVICE_PID, "com.acme.pid2");
+        second.setProperties(props);
+        tracker.modifiedService(second, second);
+        Assert.assertEquals(Arrays.asList("com.acme.pid1"), departed);
+
+        tracker.removedService(second, second);
+        Assert.assertEquals(Arrays.asList("com.acme.pid1", "com.acme.pid2"), departed);
+    }
+
+    private static MonitorableMockServiceReference createReference(String pid, int ranking) {
+        MonitorableMockServiceReference reference = new MonitorableMockServiceReference(pid);
+        Hashtable<String, Object> props = new Hashtable<String, Object>();
+        props.put(Constants.SERVICE_PID, pid);
+        props.put(Constants.SERVICE_RANKING, ranking);
+        reference.setProperties(props);
+        return reference;
+    }
+
+    private static class CountingBundleContext extends MockBundleContext {
+        private int usageCount;
+
+        @Override
+        public Object getService(ServiceReference reference) {
+            usageCount++;
+            return new MockMonitorable();
+        }
+
+        @Override
+        public boolean ungetService(ServiceReference reference) {
+            usageCount--;
+            return true;
+        }
+    }
+}
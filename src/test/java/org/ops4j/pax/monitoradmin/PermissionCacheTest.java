@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.mocks.SecutiryMockBundle;
+import org.osgi.service.monitor.MonitorPermission;
+
+import java.security.Permission;
+
+/**
+ * @author dmytro.pishchukhin
+ */
+public class PermissionCacheTest {
+    @Test
+    public void testHasPermission() {
+        PermissionCache cache = new PermissionCache();
+        CountingBundle bundle = new CountingBundle(new MonitorPermission("pid1/*", MonitorPermission.READ));
+
+        Assert.assertTrue(cache.hasPermission(bundle, "pid1/sv1", MonitorPermission.READ));
+        Assert.assertTrue(cache.hasPermission(bundle, "pid1/sv1", MonitorPermission.READ));
+        Assert.assertEquals(1, bundle.checks);
+
+        Assert.assertFalse(cache.hasPermission(bundle, "pid1/sv1", MonitorPermission.RESET));
+        Assert.assertFalse(cache.hasPermission(bundle, "pid2/sv1", MonitorPermission.READ));
+        Assert.assertFalse(cache.hasPermission(bundle, "pid2/sv1", MonitorPermission.READ));
+        Assert.assertEquals(3, bundle.checks);
+    }
+
+    @Test
+    public void testInvalidate() {
+        PermissionCache cache = new PermissionCache();
+        CountingBundle bundle1 = new CountingBundle(new MonitorPermission("*/*", MonitorPermission.READ));
+        CountingBundle bundle2 = new CountingBundle(new MonitorPermission("*/*", MonitorPermission.READ));
+
+        cache.hasPermission(bundle1, "pid1/sv1", MonitorPermission.READ);
+        cache.hasPermission(bundle2, "pid1/sv1", MonitorPermission.READ);
+        cache.invalidate(bundle1);
+        cache.hasPermission(bundle1, "pid1/sv1", MonitorPermission.READ);
+        cache.hasPermission(bundle2, "pid1/sv1", MonitorPermission.READ);
+        Assert.assertEquals(2, bundle1.checks);
+        Assert.assertEquals(1, bundle2.checks);
+
+        cache.invalidateAll();
+        cache.hasPermission(bundle1, "pid1/sv1", MonitorPermission.READ);
+        cache.hasPermission(bundle2, "pid1/sv1", MonitorPermission.READ);
+        Assert.assertEquals(3, bundle1.checks);
+        Assert.assertEquals(2, bundle2.checks);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHasPermission_InvalidAction() {
+        new PermissionCache().hasPermission(new CountingBundle(), "pid1/sv1", "unknown");
+    }
+
+    private static class CountingBundle extends SecutiryMockBundle {
+        private int checks;
+
+        private CountingBundle(Permission... permissions) {
+            super(permissions);
+        }
+
+        @Override
+        public boolean hasPermission(Object permission) {
+            checks++;
+            return super.hasPermission(permission);
+        }
+    }
+}
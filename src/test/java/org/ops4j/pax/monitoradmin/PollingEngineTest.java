@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.api.MissedTickPolicy;
+import org.ops4j.pax.monitoradmin.job.PollingEngine;
+import org.ops4j.pax.monitoradmin.job.ScheduledMonitoringJob;
+import org.ops4j.pax.monitoradmin.mocks.MockLogVisitor;
+import org.ops4j.pax.monitoradmin.mocks.MockMonitoringJobVisitor;
+import org.ops4j.pax.monitoradmin.mocks.MockScheduledExecutorService;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author dmytro.pishchukhin
+ */
+public class PollingEngineTest {
+    private static final String[] PATHS = new String[]{"com.acme.pid/sv.id1"};
+
+    private MockLogVisitor logVisitor;
+    private MockScheduledExecutorService scheduler;
+    private MockMonitoringJobVisitor visitor;
+
+    @Before
+    public void init() {
+        logVisitor = new MockLogVisitor();
+        scheduler = new MockScheduledExecutorService();
+        visitor = new MockMonitoringJobVisitor(scheduler);
+        visitor.setPollingEngine(new PollingEngine(visitor, logVisitor, scheduler) {
+            @Override
+            protected long nanoTime() {
+                return scheduler.nanoTime();
+            }
+        });
+    }
+
+    @After
+    public void uninit() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testJoinTick_InPhase() throws Exception {
+        ScheduledMonitoringJob job1 = new ScheduledMonitoringJob(visitor, logVisitor, "init1", PATHS, 5, 0);
+        scheduler.advance(4950, TimeUnit.MILLISECONDS);
+        // next tick is due within join delay
+        ScheduledMonitoringJob job2 = new ScheduledMonitoringJob(visitor, logVisitor, "init2", PATHS, 5, 0);
+        scheduler.advance(5050, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(Arrays.asList("init1@0", "init1@5000", "init2@5000", "init1@10000", "init2@10000"),
+                visitor.getMeasurements());
+        // one read per tick is shared by both jobs
+        Assert.assertEquals(3, visitor.getReads());
+
+        job1.stop();
+        job2.stop();
+        scheduler.advance(10, TimeUnit.SECONDS);
+        Assert.assertEquals(5, visitor.getMeasurements().size());
+    }
+
+    @Test
+    public void testJoinTick_OutOfPhase() throws Exception {
+        ScheduledMonitoringJob job1 = new ScheduledMonitoringJob(visitor, logVisitor, "init1", PATHS, 5, 0);
+        scheduler.advance(2, TimeUnit.SECONDS);
+        // job takes measurements with its own tick, so there is a full period between them
+        ScheduledMonitoringJob job2 = new ScheduledMonitoringJob(visitor, logVisitor, "init2", PATHS, 5, 0);
+        scheduler.advance(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(Arrays.asList("init1@0", "init2@2000", "init1@5000", "init2@7000", "init1@10000",
+                "init2@12000"), visitor.getMeasurements());
+
+        job2.stop();
+        scheduler.advance(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Arrays.asList("init1@0", "init2@2000", "init1@5000", "init2@7000", "init1@10000",
+                "init2@12000", "init1@15000"), visitor.getMeasurements());
+        job1.stop();
+    }
+
+    @Test
+    public void testJoinTick_FixedRate() throws Exception {
+        ScheduledMonitoringJob job1 = new ScheduledMonitoringJob(visitor, logVisitor, "init1", PATHS,
+                200, TimeUnit.MILLISECONDS, 0, MissedTickPolicy.SKIP, false);
+        scheduler.advance(150, TimeUnit.MILLISECONDS);
+        ScheduledMonitoringJob job2 = new ScheduledMonitoringJob(visitor, logVisitor, "init2", PATHS,
+                200, TimeUnit.MILLISECONDS, 0, MissedTickPolicy.SKIP, false);
+        scheduler.advance(300, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(Arrays.asList("init1@0", "init1@200", "init2@200", "init1@400", "init2@400"),
+                visitor.getMeasurements());
+        Assert.assertEquals(3, visitor.getReads());
+
+        job1.stop();
+        job2.stop();
+    }
+
+    @Test
+    public void testBatchJob() throws Exception {
+        ScheduledMonitoringJob job1 = new ScheduledMonitoringJob(visitor, logVisitor, "init1",
+                new String[]{"com.acme.pid/sv.id1", "com.acme.pid/sv.id2"}, 200, TimeUnit.MILLISECONDS, 0,
+                MissedTickPolicy.SKIP, true);
+        ScheduledMonitoringJob job2 = new ScheduledMonitoringJob(visitor, logVisitor, "init2", PATHS,
+                200, TimeUnit.MILLISECONDS, 0, MissedTickPolicy.SKIP, false);
+        scheduler.advance(200, TimeUnit.MILLISECONDS);
+
+        // batch job posts one event per tick, standard job of the same tick posts standard events
+        Assert.assertEquals(Arrays.asList("init1[2]@0", "init2@0", "init1[2]@200", "init2@200"),
+                visitor.getMeasurements());
+        Assert.assertEquals(4, visitor.getReads());
+
+        job1.stop();
+        job2.stop();
+    }
+}
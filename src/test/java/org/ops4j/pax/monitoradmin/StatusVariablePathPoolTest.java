@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
+import org.ops4j.pax.monitoradmin.util.StatusVariablePathPool;
+
+/**
+ * @author dmytro.pishchukhin
+ */
+public class StatusVariablePathPoolTest {
+    @Test
+    public void testGet() {
+        StatusVariablePathPool pool = new StatusVariablePathPool();
+        StatusVariablePath path = pool.get("com.acme.pid/sv.id1");
+        Assert.assertEquals("com.acme.pid", path.getMonitorableId());
+        Assert.assertEquals("sv.id1", path.getStatusVariableId());
+        Assert.assertSame(path, pool.get("com.acme.pid/sv.id1"));
+        Assert.assertSame(path, pool.get("com.acme.pid", "sv.id1"));
+        Assert.assertEquals(new StatusVariablePath("com.acme.pid/sv.id1"), path);
+        Assert.assertEquals(1, pool.size());
+
+        try {
+            pool.get(null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            pool.get("com.acme.pid/sv.id1/sv.id2");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            pool.get("com.acme.pid", null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        Assert.assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testBoundAndEviction() {
+        StatusVariablePathPool pool = new StatusVariablePathPool(2);
+        StatusVariablePath path1 = pool.get("com.acme.pid1/sv.id1");
+        pool.get("com.acme.pid2/sv.id1");
+
+        // pool is full - path is not interned
+        StatusVariablePath path3 = pool.get("com.acme.pid2/sv.id2");
+        Assert.assertNotSame(path3, pool.get("com.acme.pid2/sv.id2"));
+        Assert.assertEquals(path3, pool.get("com.acme.pid2/sv.id2"));
+        Assert.assertEquals(2, pool.size());
+
+        pool.evict("com.acme.pid2");
+        Assert.assertEquals(1, pool.size());
+        Assert.assertSame(path1, pool.get("com.acme.pid1", "sv.id1"));
+        path3 = pool.get("com.acme.pid2", "sv.id2");
+        Assert.assertSame(path3, pool.get("com.acme.pid2/sv.id2"));
+    }
+
+    @Test
+    public void testUnregisteredMonitorable() {
+        StatusVariablePathPool pool = new StatusVariablePathPool(2, new StatusVariablePathPool.MonitorableRegistry() {
+            public boolean isRegistered(String monitorableId) {
+                return "com.acme.pid1".equals(monitorableId);
+            }
+        });
+        // paths of non-existing Monitorables do not fill the pool
+        for (int i = 0; i < 10; i++) {
+            StatusVariablePath path = pool.get("com.acme.pid2/sv.id" + i);
+            Assert.assertEquals("sv.id" + i, path.getStatusVariableId());
+        }
+        Assert.assertEquals(0, pool.size());
+
+        StatusVariablePath path = pool.get("com.acme.pid1", "sv.id1");
+        Assert.assertSame(path, pool.get("com.acme.pid1/sv.id1"));
+        Assert.assertEquals(1, pool.size());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.mocks.MockLogVisitor;
+import org.ops4j.pax.monitoradmin.mocks.MockMonitorable;
+import org.ops4j.pax.monitoradmin.mocks.MockOsgiVisitor;
+import org.ops4j.pax.monitoradmin.mocks.MonitorableMockServiceReference;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.Event;
+import org.osgi.service.monitor.MonitorAdmin;
+import org.osgi.service.monitor.Monitorable;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author dmytro.pishchukhin
+ */
+public class UpdateCoalescerTest {
+    private MonitorAdminCommon common;
+
+    @After
+    public void uninit() {
+        if (common != null) {
+            common.shutdown();
+        }
+    }
+
+    @Test
+    public void testUpdated_Coalescing() throws Exception {
+        MockOsgiVisitor osgiVisitor = new MockOsgiVisitor();
+        MockLogVisitor logVisitor = new MockLogVisitor();
+        MonitorAdminConfiguration configuration = new MonitorAdminConfiguration();
+        configuration.setCoalescingWindow(200);
+        common = new MonitorAdminCommon(osgiVisitor, logVisitor, configuration);
+
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        MockMonitorable monitorable = new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0),
+                new StatusVariable("sv.id2", StatusVariable.CM_CC, 0));
+        monitorable.setNotificationSupport("sv.id1", true);
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        MonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, null);
+        monitorAdmin.startJob("init1", new String[]{"com.acme.pid/sv.id1"}, 10);
+
+        for (int i = 1; i <= 100; i++) {
+            common.updated("com.acme.pid", new StatusVariable("sv.id1", StatusVariable.CM_CC, i));
+        }
+        common.updated("com.acme.pid", new StatusVariable("sv.id2", StatusVariable.CM_CC, 1));
+
+        // job events are not coalesced
+        Assert.assertEquals(10, osgiVisitor.getPostedEvents().length);
+
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        int listenerEvents = 0;
+        Event lastEvent = null;
+        for (Event event : osgiVisitor.getPostedEvents()) {
+            if (event.getProperty(ConstantsMonitorAdmin.MON_LISTENER_ID) == null) {
+                listenerEvents++;
+                if ("sv.id1".equals(event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME))) {
+                    lastEvent = event;
+                }
+            }
+        }
+        Assert.assertTrue(String.valueOf(listenerEvents), listenerEvents >= 2 && listenerEvents < 10);
+        Assert.assertNotNull(lastEvent);
+        Assert.assertEquals("100", lastEvent.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+    }
+
+    @Test
+    public void testUpdated_SwitchedOffInWindow() throws Exception {
+        MockOsgiVisitor osgiVisitor = new MockOsgiVisitor();
+        MockLogVisitor logVisitor = new MockLogVisitor();
+        MonitorAdminConfiguration configuration = new MonitorAdminConfiguration();
+        configuration.setCoalescingWindow(200);
+        common = new MonitorAdminCommon(osgiVisitor, logVisitor, configuration);
+
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        MockMonitorable monitorable = new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0),
+                new StatusVariable("sv.id2", StatusVariable.CM_CC, 0));
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        MonitorAdmin monitorAdmin = new MonitorAdminImpl(logVisitor, common, null);
+
+        common.updated("com.acme.pid", new StatusVariable("sv.id1", StatusVariable.CM_CC, 1));
+        common.updated("com.acme.pid", new StatusVariable("sv.id2", StatusVariable.CM_CC, 1));
+        // pending event of switched off StatusVariable is dropped
+        monitorAdmin.switchEvents("com.acme.pid/sv.id1", false);
+
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        Event[] events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals(1, events.length);
+        Assert.assertEquals("sv.id2", events[0].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_NAME));
+    }
+
+    @Test
+    public void testUpdated_DepartedMonitorable() throws Exception {
+        MockOsgiVisitor osgiVisitor = new MockOsgiVisitor();
+        MockLogVisitor logVisitor = new MockLogVisitor();
+        MonitorAdminConfiguration configuration = new MonitorAdminConfiguration();
+        configuration.setCoalescingWindow(200);
+        common = new MonitorAdminCommon(osgiVisitor, logVisitor, configuration);
+
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        MockMonitorable monitorable = new MockMonitorable(new StatusVariable("sv.id1", StatusVariable.CM_CC, 0));
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), monitorable);
+        osgiVisitor.setReferences(map);
+
+        common.updated("com.acme.pid", new StatusVariable("sv.id1", StatusVariable.CM_CC, 1));
+        common.monitorableDeparted("com.acme.pid");
+        // update that comes after clear of departed Monitorable is not posted
+        common.updated("com.acme.pid", new StatusVariable("sv.id1", StatusVariable.CM_CC, 2));
+        osgiVisitor.setReferences(new HashMap<ServiceReference, Monitorable>());
+
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        Assert.assertEquals(0, osgiVisitor.getPostedEvents().length);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.mocks.MockLogVisitor;
+import org.ops4j.pax.monitoradmin.mocks.MockMonitorable;
+import org.ops4j.pax.monitoradmin.mocks.MockOsgiVisitor;
+import org.ops4j.pax.monitoradmin.mocks.MonitorableMockServiceReference;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.Event;
+import org.osgi.service.monitor.Monitorable;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author dmytro.pishchukhin
+ */
+public class UpdateDispatcherTest {
+    private BlockingOsgiVisitor osgiVisitor;
+    private MonitorAdminCommon common;
+    private StatusVariable statusVariable;
+
+    @Before
+    public void init() {
+        osgiVisitor = new BlockingOsgiVisitor();
+        statusVariable = new StatusVariable("sv.id1", StatusVariable.CM_CC, 0);
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        map.put(new MonitorableMockServiceReference("com.acme.pid"), new MockMonitorable(statusVariable));
+        osgiVisitor.setReferences(map);
+    }
+
+    @After
+    public void uninit() {
+        osgiVisitor.release.countDown();
+        if (common != null) {
+            common.shutdown();
+        }
+    }
+
+    @Test
+    public void testUpdated_Async() throws Exception {
+        osgiVisitor.release.countDown();
+        common = createCommon(16, OverflowPolicy.BLOCK);
+
+        try {
+            common.updated("com.acme.pid2", statusVariable);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            common.updated("com.acme.pid", (StatusVariable) null);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+
+        for (int i = 0; i < 100; i++) {
+            common.updated("com.acme.pid", statusVariable);
+        }
+        Assert.assertTrue(osgiVisitor.awaitEvents(100));
+        Assert.assertEquals(0, common.getDroppedUpdates());
+    }
+
+    @Test
+    public void testUpdated_DropNewest() throws Exception {
+        common = createCommon(4, OverflowPolicy.DROP_NEWEST);
+        fillQueue();
+
+        Assert.assertEquals(5, common.getDroppedUpdates());
+        osgiVisitor.release.countDown();
+        // 1 update that blocks the dispatcher + 4 queued updates
+        Assert.assertTrue(osgiVisitor.awaitEvents(5));
+    }
+
+    @Test
+    public void testUpdated_DropOldest() throws Exception {
+        common = createCommon(4, OverflowPolicy.DROP_OLDEST);
+        fillQueue();
+
+        Assert.assertEquals(5, common.getDroppedUpdates());
+        osgiVisitor.release.countDown();
+        Assert.assertTrue(osgiVisitor.awaitEvents(5));
+        // the newest updates are kept
+        Event[] events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals("9", events[events.length - 1].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+    }
+
+    @Test
+    public void testUpdated_BatchIsCopied() throws Exception {
+        common = createCommon(4, OverflowPolicy.BLOCK);
+        common.updated("com.acme.pid", new StatusVariable("sv.id1", StatusVariable.CM_CC, 0));
+        Assert.assertTrue(osgiVisitor.dispatching.await(5, TimeUnit.SECONDS));
+
+        // Monitorable reuses the array while the batch is queued
+        StatusVariable[] statusVariables = {new StatusVariable("sv.id1", StatusVariable.CM_CC, 1)};
+        common.updated("com.acme.pid", statusVariables);
+        statusVariables[0] = null;
+
+        osgiVisitor.release.countDown();
+        Assert.assertTrue(osgiVisitor.awaitEvents(2));
+        Event[] events = osgiVisitor.getPostedEvents();
+        Assert.assertEquals("1", events[1].getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+    }
+
+    @Test
+    public void testUpdated_BlockAfterStop() throws Exception {
+        common = createCommon(4, OverflowPolicy.BLOCK);
+        Thread producer = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    fillQueue();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        producer.start();
+        Assert.assertTrue(osgiVisitor.dispatching.await(5, TimeUnit.SECONDS));
+
+        // producer that is blocked on the full queue is released when the dispatcher is stopped
+        common.shutdown();
+        producer.join(5000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertTrue(common.getDroppedUpdates() > 0);
+
+        long droppedUpdates = common.getDroppedUpdates();
+        common.updated("com.acme.pid", statusVariable);
+        Assert.assertEquals(droppedUpdates + 1, common.getDroppedUpdates());
+    }
+
+    @Test
+    public void testUpdated_Sharded() throws Exception {
+        osgiVisitor.release.countDown();
+        HashMap<ServiceReference, Monitorable> map = new HashMap<ServiceReference, Monitorable>();
+        for (int i = 0; i < 8; i++) {
+            map.put(new MonitorableMockServiceReference("com.acme.pid" + i), new MockMonitorable(statusVariable));
+        }
+        osgiVisitor.setReferences(map);
+
+        MonitorAdminConfiguration configuration = new MonitorAdminConfiguration();
+        configuration.setAsyncUpdates(true);
+        configuration.setUpdatesShards(4);
+        configuration.setUpdatesOverflowPolicy(OverflowPolicy.BLOCK);
+        common = new MonitorAdminCommon(osgiVisitor, new MockLogVisitor(), configuration);
+        Assert.assertEquals(4, common.getUpdatesQueueDepths().length);
+
+        for (int value = 0; value < 50; value++) {
+            for (int i = 0; i < 8; i++) {
+                common.updated("com.acme.pid" + i, new StatusVariable("sv.id1", StatusVariable.CM_CC, value));
+            }
+        }
+        Assert.assertTrue(osgiVisitor.awaitEvents(400));
+
+        // updates of every Monitorable are dispatched in order
+        HashMap<Object, Integer> lastValues = new HashMap<Object, Integer>();
+        for (Event event : osgiVisitor.getPostedEvents()) {
+            Object pid = event.getProperty(ConstantsMonitorAdmin.MON_MONITORABLE_PID);
+            int value = Integer.parseInt((String) event.getProperty(ConstantsMonitorAdmin.MON_STATUSVARIABLE_VALUE));
+            Integer lastValue = lastValues.put(pid, value);
+            Assert.assertEquals(lastValue == null ? 0 : lastValue + 1, value);
+        }
+        Assert.assertEquals(8, lastValues.size());
+        Assert.assertEquals(0, common.getDroppedUpdates());
+    }
+
+    private MonitorAdminCommon createCommon(int capacity, OverflowPolicy policy) {
+        MonitorAdminConfiguration configuration = new MonitorAdminConfiguration();
+        configuration.setAsyncUpdates(true);
+        configuration.setUpdatesQueueCapacity(capacity);
+        configuration.setUpdatesOverflowPolicy(policy);
+        return new MonitorAdminCommon(osgiVisitor, new MockLogVisitor(), configuration);
+    }
+
+    /**
+     * Block the dispatcher with the first update and report 9 more updates
+     */
+    private void fillQueue() throws InterruptedException {
+        common.updated("com.acme.pid", new StatusVariable("sv.id1", StatusVariable.CM_CC, 0));
+        Assert.assertTrue(osgiVisitor.dispatching.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < 10; i++) {
+            common.updated("com.acme.pid", new StatusVariable("sv.id1", StatusVariable.CM_CC, i));
+        }
+    }
+
+    private static class BlockingOsgiVisitor extends MockOsgiVisitor {
+        private final CountDownLatch dispatching = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public synchronized void postEvent(Event event) {
+            dispatching.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            super.postEvent(event);
+            notifyAll();
+        }
+
+        private synchronized boolean awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (getPostedEvents().length < count) {
+                long timeout = deadline - System.currentTimeMillis();
+                if (timeout <= 0) {
+                    return false;
+                }
+                wait(timeout);
+            }
+            return getPostedEvents().length == count;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.ops4j.pax.monitoradmin.util.Utils;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Validators are checked against the original regular expressions and name check on random ids
+ *
+ * @author dmytro.pishchukhin
+ */
+public class UtilsTest {
+    private static final Pattern PATH_ID_VALIDATE_PATTERN = Pattern.compile("((\\w|_|-)+)(\\.(\\w|_|-)+)*");
+    private static final Pattern FILTER_ID_VALIDATE_PATTERN = Pattern.compile("(\\*)|(((\\w|_|-)+)(\\.(\\w|_|-)*)*)(\\*)?");
+    private static final String SYMBOLIC_NAME_CHARACTERS =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ" + "0123456789" + "-_.";
+    /**
+     * Random ids alphabet: valid characters, separators, wildcard and non-ASCII characters
+     */
+    private static final char[] ALPHABET = {'a', 'z', 'A', 'Z', '0', '9', '_', '-', '.', '.', '*', '/', ' ', '$',
+            '\u00e9', '\u00ff', '\u0100', '\u20ac', '\u0660'};
+    private static final int ITERATIONS = 200000;
+
+    @Test
+    public void testValidatePathId() {
+        Random random = new Random(1);
+        for (int i = 0; i < ITERATIONS; i++) {
+            String id = randomId(random);
+            Assert.assertEquals(id, PATH_ID_VALIDATE_PATTERN.matcher(id).matches(), Utils.validatePathId(id));
+        }
+    }
+
+    @Test
+    public void testValidatePathFilterId() {
+        Random random = new Random(2);
+        for (int i = 0; i < ITERATIONS; i++) {
+            String id = randomId(random);
+            Assert.assertEquals(id, FILTER_ID_VALIDATE_PATTERN.matcher(id).matches(), Utils.validatePathFilterId(id));
+        }
+    }
+
+    @Test
+    public void testValidateName() throws Exception {
+        Random random = new Random(3);
+        for (int i = 0; i < ITERATIONS; i++) {
+            String id = randomId(random);
+            Assert.assertEquals(id, isValidName(id), Utils.validateName(id));
+        }
+        Assert.assertTrue(Utils.validateName("abcdefghijklmnopqrstuvwxyz012345"));
+        Assert.assertFalse(Utils.validateName("abcdefghijklmnopqrstuvwxyz0123456"));
+        Assert.assertFalse(Utils.validateName(".."));
+    }
+
+    private static String randomId(Random random) {
+        // short ids hit the interesting cases more often
+        int length = random.nextInt(4) == 0 ? random.nextInt(40) : random.nextInt(6);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Original name check: UTF-8 encoded length and characters lookup
+     */
+    private static boolean isValidName(String id) throws UnsupportedEncodingException {
+        if (id.getBytes("UTF-8").length > 32) {
+            return false;
+        }
+        if (id.equals(".") || id.equals("..")) {
+            return false;
+        }
+        for (char aChar : id.toCharArray()) {
+            if (SYMBOLIC_NAME_CHARACTERS.indexOf(aChar) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testEscapeTopicToken() {
+        Assert.assertEquals("pid-1", Utils.escapeTopicToken("pid-1"));
+        Assert.assertEquals("com_2eacme_2epid", Utils.escapeTopicToken("com.acme.pid"));
+        Assert.assertEquals("sv_5fid_5f", Utils.escapeTopicToken("sv_id_"));
+        Assert.assertEquals("_5f_2e", Utils.escapeTopicToken("_."));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.benchmark;
+
+import org.ops4j.pax.monitoradmin.util.Utils;
+
+import java.util.regex.Pattern;
+
+/**
+ * Id validation benchmark: table-driven validators against the regular expressions they replace.
+ * Is not a unit test, run it with <code>main</code>.
+ * <p/>
+ * Arguments: [iterations per run (default 10000000)]
+ *
+ * @author dmytro.pishchukhin
+ */
+public class IdValidationBenchmark {
+    private static final Pattern PATH_ID_VALIDATE_PATTERN = Pattern.compile("((\\w|_|-)+)(\\.(\\w|_|-)+)*");
+    private static final Pattern FILTER_ID_VALIDATE_PATTERN = Pattern.compile("(\\*)|(((\\w|_|-)+)(\\.(\\w|_|-)*)*)(\\*)?");
+    private static final String[] IDS = {"com.acme.pid", "sv.id1", "org.ops4j.pax.monitoradmin.test", "a", "com.acme*",
+            "invalid..id", "invalid id"};
+
+    /**
+     * Prevents dead code elimination
+     */
+    private static int sink;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        // warm up
+        for (int run = 0; run < 3; run++) {
+            run(iterations / 10, false);
+        }
+        run(iterations, true);
+        System.out.println(sink);
+    }
+
+    private static void run(int iterations, boolean print) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (PATH_ID_VALIDATE_PATTERN.matcher(IDS[i % IDS.length]).matches()) {
+                sink++;
+            }
+        }
+        long pathRegex = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (Utils.validatePathId(IDS[i % IDS.length])) {
+                sink++;
+            }
+        }
+        long pathTable = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (FILTER_ID_VALIDATE_PATTERN.matcher(IDS[i % IDS.length]).matches()) {
+                sink++;
+            }
+        }
+        long filterRegex = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (Utils.validatePathFilterId(IDS[i % IDS.length])) {
+                sink++;
+            }
+        }
+        long filterTable = System.nanoTime() - start;
+
+        if (print) {
+            System.out.println("validator\tregex ns/op\ttable ns/op");
+            System.out.println(String.format("path id\t%.1f\t%.1f", (double) pathRegex / iterations,
+                    (double) pathTable / iterations));
+            System.out.println(String.format("filter id\t%.1f\t%.1f", (double) filterRegex / iterations,
+                    (double) filterTable / iterations));
+        }
+    }
+}
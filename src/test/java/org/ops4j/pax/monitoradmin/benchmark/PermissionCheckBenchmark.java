@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.benchmark;
+
+import org.ops4j.pax.monitoradmin.LogVisitor;
+import org.ops4j.pax.monitoradmin.MonitorAdminCommon;
+import org.ops4j.pax.monitoradmin.MonitorAdminConfiguration;
+import org.ops4j.pax.monitoradmin.MonitorAdminImpl;
+import org.ops4j.pax.monitoradmin.SecurityMode;
+import org.ops4j.pax.monitoradmin.UnsecuredMonitorAdminImpl;
+import org.ops4j.pax.monitoradmin.mocks.MockMonitorable;
+import org.ops4j.pax.monitoradmin.mocks.MockOsgiVisitor;
+import org.ops4j.pax.monitoradmin.mocks.MonitorableMockServiceReference;
+import org.ops4j.pax.monitoradmin.mocks.SecutiryMockBundle;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.monitor.MonitorAdmin;
+import org.osgi.service.monitor.MonitorPermission;
+import org.osgi.service.monitor.Monitorable;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read path permission checks benchmark: secured <code>MonitorAdmin</code> with and without permission
+ * decisions cache against the permission-free implementation. Is not a unit test, run it with <code>main</code>.
+ * <p/>
+ * Arguments: [iterations per run (default 1000000)] [StatusVariables per Monitorable (default 100)]
+ *
+ * @author dmytro.pishchukhin
+ */
+public class PermissionCheckBenchmark {
+    /**
+     * Prevents dead code elimination
+     */
+    private static int sink;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int variables = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        MockOsgiVisitor osgiVisitor = new MockOsgiVisitor();
+        MockMonitorable monitorable = new MockMonitorable();
+        for (int i = 0; i < variables; i++) {
+            monitorable.setStatusVariables(new StatusVariable("sv" + i, StatusVariable.CM_CC, i));
+        }
+        Map<ServiceReference, Monitorable> references = new HashMap<ServiceReference, Monitorable>();
+        references.put(new MonitorableMockServiceReference(
+                new SecutiryMockBundle(new MonitorPermission("*/*", MonitorPermission.PUBLISH)), "pid"), monitorable);
+        osgiVisitor.setReferences(references);
+        SecutiryMockBundle consumer = new SecutiryMockBundle(new MonitorPermission("pid/*", MonitorPermission.READ));
+
+        MonitorAdminConfiguration cachedConfiguration = new MonitorAdminConfiguration();
+        cachedConfiguration.setPermissionCacheTtl(60000);
+        cachedConfiguration.setSecurityMode(SecurityMode.ENABLED);
+        LogVisitor logVisitor = UpdateContentionBenchmark.QuietLogVisitor.INSTANCE;
+        MonitorAdminCommon uncachedCommon = new MonitorAdminCommon(osgiVisitor, logVisitor);
+        MonitorAdminCommon common = new MonitorAdminCommon(osgiVisitor, logVisitor, cachedConfiguration);
+
+        String[] modes = {"secured, no cache", "secured, cache", "unsecured"};
+        MonitorAdmin[] monitorAdmins = {
+                new MonitorAdminImpl(logVisitor, uncachedCommon, consumer),
+                new MonitorAdminImpl(logVisitor, common, consumer),
+                new UnsecuredMonitorAdminImpl(logVisitor, common, consumer)
+        };
+        String[] paths = new String[variables];
+        for (int i = 0; i < variables; i++) {
+            paths[i] = "pid/sv" + i;
+        }
+
+        // warm up
+        for (int run = 0; run < 3; run++) {
+            for (MonitorAdmin monitorAdmin : monitorAdmins) {
+                readVariable(monitorAdmin, paths, iterations / 10);
+                readVariables(monitorAdmin, iterations / 100);
+            }
+        }
+        System.out.println("mode\tgetStatusVariable ns/op\tgetStatusVariables ns/op");
+        for (int i = 0; i < modes.length; i++) {
+            System.out.println(String.format("%s\t%.1f\t%.1f", modes[i],
+                    (double) readVariable(monitorAdmins[i], paths, iterations) / iterations,
+                    (double) readVariables(monitorAdmins[i], iterations / 100) / (iterations / 100)));
+        }
+        System.out.println(sink);
+        uncachedCommon.shutdown();
+        common.shutdown();
+    }
+
+    private static long readVariable(MonitorAdmin monitorAdmin, String[] paths, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += monitorAdmin.getStatusVariable(paths[i % paths.length]).getInteger();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long readVariables(MonitorAdmin monitorAdmin, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += monitorAdmin.getStatusVariables("pid").length;
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.monitoradmin.benchmark;
+
+import org.ops4j.pax.monitoradmin.MonitorAdminCommon;
+import org.ops4j.pax.monitoradmin.MonitorAdminConfiguration;
+import org.ops4j.pax.monitoradmin.OverflowPolicy;
+import org.ops4j.pax.monitoradmin.mocks.MockMonitorable;
+import org.ops4j.pax.monitoradmin.mocks.MonitorableMockServiceReference;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.Event;
+import org.osgi.service.monitor.Monitorable;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Asynchronous updates dispatching throughput benchmark with 1, 4 and 16 dispatcher shards.
+ * Producer threads report updates of independent <code>Monitorable</code>s, every posted event
+ * simulates EventAdmin work. Is not a unit test, run it with <code>main</code>.
+ * <p/>
+ * Arguments: [producer threads (default 4)] [updates per run (default 1000000)] [event cost, ns (default 1000)]
+ *
+ * @author dmytro.pishchukhin
+ */
+public class ShardedDispatchBenchmark {
+    private static final int MONITORABLES = 64;
+    private static final int[] SHARDS = {1, 4, 16};
+
+    public static void main(String[] args) throws Exception {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int updates = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        long eventCost = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+        System.out.println("shards\tupdates/s\tmax queue depth");
+        for (int shards : SHARDS) {
+            run(shards, producers, updates, eventCost);
+        }
+    }
+
+    private static void run(int shards, int producers, final int updates, final long eventCost) throws Exception {
+        final CountingOsgiVisitor osgiVisitor = new CountingOsgiVisitor(eventCost);
+        MonitorAdminConfiguration configuration = new MonitorAdminConfiguration();
+        configuration.setAsyncUpdates(true);
+        configuration.setUpdatesShards(shards);
+        configuration.setUpdatesOverflowPolicy(OverflowPolicy.BLOCK);
+        final MonitorAdminCommon common = new MonitorAdminCommon(osgiVisitor,
+                UpdateContentionBenchmark.QuietLogVisitor.INSTANCE, configuration);
+
+        final String[] pids = new String[MONITORABLES];
+        final StatusVariable[] variables = new StatusVariable[MONITORABLES];
+        Map<ServiceReference, Monitorable> references = new HashMap<ServiceReference, Monitorable>();
+        for (int i = 0; i < MONITORABLES; i++) {
+            pids[i] = "pid" + i;
+            variables[i] = new StatusVariable("sv", StatusVariable.CM_CC, i);
+            references.put(new MonitorableMockServiceReference(pids[i]), new MockMonitorable(variables[i]));
+        }
+        osgiVisitor.setReferences(references);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final int updatesPerProducer = updates / producers;
+        Thread[] threads = new Thread[producers];
+        for (int t = 0; t < producers; t++) {
+            final int offset = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < updatesPerProducer; i++) {
+                        int monitorable = (offset + i) % MONITORABLES;
+                        common.updated(pids[monitorable], variables[monitorable]);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        long expected = (long) updatesPerProducer * producers;
+        int maxDepth = 0;
+        long startTime = System.nanoTime();
+        start.countDown();
+        while (osgiVisitor.events.get() < expected) {
+            for (int depth : common.getUpdatesQueueDepths()) {
+                maxDepth = Math.max(maxDepth, depth);
+            }
+            Thread.sleep(1);
+        }
+        long elapsed = System.nanoTime() - startTime;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        common.shutdown();
+        System.out.println(String.format("%d\t%d\t%d", shards, expected * 1000000000L / elapsed, maxDepth));
+    }
+
+    private static class CountingOsgiVisitor extends UpdateContentionBenchmark.CountingOsgiVisitor {
+        private final long eventCost;
+
+        private CountingOsgiVisitor(long eventCost) {
+            this.eventCost = eventCost;
+        }
+
+        @Override
+        public void postEvent(Event event) {
+            // simulate EventAdmin work
+            long deadline = System.nanoTime() + eventCost;
+            while (System.nanoTime() < deadline) {
+                // spin
+            }
+            super.postEvent(event);
+        }
+    }
+}
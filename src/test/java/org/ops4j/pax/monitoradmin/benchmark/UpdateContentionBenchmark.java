@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin.benchmark;
+
+import org.ops4j.pax.monitoradmin.LogVisitor;
+import org.ops4j.pax.monitoradmin.MonitorAdminCommon;
+import org.ops4j.pax.monitoradmin.MonitorAdminImpl;
+import org.ops4j.pax.monitoradmin.mocks.MockMonitorable;
+import org.ops4j.pax.monitoradmin.mocks.MockOsgiVisitor;
+import org.ops4j.pax.monitoradmin.mocks.MonitorableMockServiceReference;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.event.Event;
+import org.osgi.service.monitor.MonitorAdmin;
+import org.osgi.service.monitor.Monitorable;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <code>MonitorListener.updated</code> contention benchmark: producer threads report updates concurrently
+ * while subscription jobs are registered. Is not a unit test, run it with <code>main</code>.
+ * <p/>
+ * Arguments: [max threads (default 32)] [seconds per run (default 3)]
+ *
+ * @author dmytro.pishchukhin
+ */
+public class UpdateContentionBenchmark {
+    private static final int MONITORABLES = 64;
+    private static final int VARIABLES = 8;
+    private static final int JOBS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        final CountingOsgiVisitor osgiVisitor = new CountingOsgiVisitor();
+        final MonitorAdminCommon common = new MonitorAdminCommon(osgiVisitor, QuietLogVisitor.INSTANCE);
+
+        final String[] pids = new String[MONITORABLES];
+        final StatusVariable[][] variables = new StatusVariable[MONITORABLES][VARIABLES];
+        Map<ServiceReference, Monitorable> references = new HashMap<ServiceReference, Monitorable>();
+        for (int i = 0; i < MONITORABLES; i++) {
+            pids[i] = "pid" + i;
+            MockMonitorable monitorable = new MockMonitorable();
+            for (int j = 0; j < VARIABLES; j++) {
+                variables[i][j] = new StatusVariable("sv" + j, StatusVariable.CM_CC, j);
+                monitorable.setStatusVariables(variables[i][j]);
+                monitorable.setNotificationSupport("sv" + j, true);
+            }
+            references.put(new MonitorableMockServiceReference(pids[i]), monitorable);
+        }
+        osgiVisitor.setReferences(references);
+
+        MonitorAdmin monitorAdmin = new MonitorAdminImpl(QuietLogVisitor.INSTANCE, common, null);
+        for (int i = 0; i < JOBS; i++) {
+            monitorAdmin.startJob("job" + i, new String[]{"pid" + (i % MONITORABLES) + "/sv" + (i % VARIABLES)}, 10);
+        }
+
+        System.out.println("threads\tupdates/s\tevents/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run(common, osgiVisitor, pids, variables, threads, seconds);
+        }
+        common.cancelAllJobs();
+    }
+
+    private static void run(final MonitorAdminCommon common, CountingOsgiVisitor osgiVisitor, final String[] pids,
+                            final StatusVariable[][] variables, int threads, int seconds) throws InterruptedException {
+        final AtomicLong updates = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            producers[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long count = 0;
+                    int i = offset;
+                    while (System.nanoTime() < deadline) {
+                        int monitorable = i % MONITORABLES;
+                        common.updated(pids[monitorable], variables[monitorable][i % VARIABLES]);
+                        i++;
+                        count++;
+                    }
+                    updates.addAndGet(count);
+                }
+            });
+            producers[t].start();
+        }
+        osgiVisitor.events.set(0);
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        System.out.println(String.format("%d\t%d\t%d", threads, updates.get() / seconds, osgiVisitor.events.get() / seconds));
+    }
+
+    static class CountingOsgiVisitor extends MockOsgiVisitor {
+        final AtomicLong events = new AtomicLong();
+
+        @Override
+        public void postEvent(Event event) {
+            events.incrementAndGet();
+        }
+    }
+
+    static class QuietLogVisitor implements LogVisitor {
+        static final QuietLogVisitor INSTANCE = new QuietLogVisitor();
+
+        public void debug(String message, Throwable throwable) {
+        }
+
+        public void info(String message, Throwable throwable) {
+        }
+
+        public void warning(String message, Throwable throwable) {
+        }
+
+        public void error(String message, Throwable throwable) {
+        }
+    }
+}
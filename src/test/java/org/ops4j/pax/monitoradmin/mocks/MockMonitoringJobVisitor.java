@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin.mocks;
+
+import org.ops4j.pax.monitoradmin.api.ReadStatus;
+import org.ops4j.pax.monitoradmin.job.AbstractMonitoringJob;
+import org.ops4j.pax.monitoradmin.job.MonitoringJobVisitor;
+import org.ops4j.pax.monitoradmin.job.PollingEngine;
+import org.ops4j.pax.monitoradmin.job.ScheduledMonitoringJob;
+import org.ops4j.pax.monitoradmin.util.StatusVariablePath;
+import org.osgi.service.monitor.StatusVariable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job visitor that records measurements with the time of the {@link MockScheduledExecutorService} clock
+ *
+ * @author dmytro.pishchukhin
+ */
+public class MockMonitoringJobVisitor implements MonitoringJobVisitor {
+    private final MockScheduledExecutorService scheduler;
+    private final List<String> measurements = new ArrayList<String>();
+    private PollingEngine pollingEngine;
+    private int reads;
+
+    public MockMonitoringJobVisitor(MockScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public void setPollingEngine(PollingEngine pollingEngine) {
+        this.pollingEngine = pollingEngine;
+    }
+
+    /**
+     * Get measurements in [initiator]@[time in milliseconds] format
+     *
+     * @return measurements in the order they were taken
+     */
+    public synchronized List<String> getMeasurements() {
+        return new ArrayList<String>(measurements);
+    }
+
+    public synchronized int getReads() {
+        return reads;
+    }
+
+    public synchronized StatusVariable getStatusVariable(String path) throws IllegalArgumentException {
+        reads++;
+        return new StatusVariable(new StatusVariablePath(path).getStatusVariableId(), StatusVariable.CM_CC, reads);
+    }
+
+    public void cancelJob(AbstractMonitoringJob job) {
+        job.cancel();
+    }
+
+    public synchronized void fireEvent(String monitorableId, StatusVariable statusVariable, String initiator) {
+        measurements.add(initiator + "@" + TimeUnit.NANOSECONDS.toMillis(scheduler.nanoTime()));
+    }
+
+    public synchronized void fireBatchEvent(StatusVariablePath[] paths, StatusVariable[] statusVariables,
+                                            ReadStatus[] statuses, String initiator) {
+        measurements.add(initiator + "[" + paths.length + "]@" + TimeUnit.NANOSECONDS.toMillis(scheduler.nanoTime()));
+    }
+
+    public void scheduleJob(ScheduledMonitoringJob job) {
+        pollingEngine.add(job);
+    }
+
+    public void unscheduleJob(ScheduledMonitoringJob job) {
+        pollingEngine.remove(job);
+    }
+
+    public StatusVariablePath getStatusVariablePath(String path) throws IllegalArgumentException {
+        return new StatusVariablePath(path);
+    }
+
+    public StatusVariablePath getStatusVariablePath(String monitorableId, String statusVariableId)
+            throws IllegalArgumentException {
+        return new StatusVariablePath(monitorableId, statusVariableId);
+    }
+}
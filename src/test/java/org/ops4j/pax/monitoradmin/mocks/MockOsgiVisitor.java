@@ -29,6 +29,7 @@ import java.util.*;
  */
 public class MockOsgiVisitor implements OsgiVisitor {
     private Map<ServiceReference, Monitorable> serviceReferences = new HashMap<ServiceReference, Monitorable>();
+    private Map<String, ServiceReference> pidIndex = new HashMap<String, ServiceReference>();
 
     private List<Event> events = new ArrayList<Event>();
 
@@ -43,6 +44,14 @@ public class MockOsgiVisitor implements OsgiVisitor {
     public void setReferences(Map<ServiceReference, Monitorable> references) {
         serviceReferences.clear();
         serviceReferences.putAll(references);
+        pidIndex.clear();
+        for (ServiceReference reference : serviceReferences.keySet()) {
+            String pid = (String) reference.getProperty(Constants.SERVICE_PID);
+            ServiceReference mostSuitableMonitorable = pidIndex.get(pid);
+            if (mostSuitableMonitorable == null || mostSuitableMonitorable.compareTo(reference) < 0) {
+                pidIndex.put(pid, reference);
+            }
+        }
     }
 
     public Monitorable getService(ServiceReference reference) {
@@ -64,6 +73,10 @@ public class MockOsgiVisitor implements OsgiVisitor {
         return result.toArray(new ServiceReference[result.size()]);
     }
 
+    public ServiceReference findMonitorableReference(String monitorableId) {
+        return pidIndex.get(monitorableId);
+    }
+
     public void postEvent(Event event) {
         events.add(event);
     }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2012 Dmytro Pishchukhin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ops4j.pax.monitoradmin.mocks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single threaded scheduler with virtual clock: scheduled tasks are run by {@link #advance(long, TimeUnit)}
+ * in the calling thread
+ *
+ * @author dmytro.pishchukhin
+ */
+public class MockScheduledExecutorService extends AbstractExecutorService implements ScheduledExecutorService {
+    private final PriorityQueue<Task> tasks = new PriorityQueue<Task>();
+    private long now;
+    private long sequence;
+    private boolean shutdown;
+
+    /**
+     * Get virtual time
+     *
+     * @return time in nanoseconds
+     */
+    public synchronized long nanoTime() {
+        return now;
+    }
+
+    /**
+     * Move virtual clock forward and run all tasks that are due meanwhile, in the order of their time
+     *
+     * @param time time to move
+     * @param unit time unit
+     */
+    public void advance(long time, TimeUnit unit) {
+        long target;
+        synchronized (this) {
+            target = now + unit.toNanos(time);
+        }
+        while (true) {
+            Task task;
+            synchronized (this) {
+                task = tasks.peek();
+                if (task == null || task.time > target) {
+                    now = target;
+                    return;
+                }
+                tasks.poll();
+                now = task.time;
+            }
+            task.run();
+        }
+    }
+
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(new Task(command, unit.toNanos(delay)));
+    }
+
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void execute(Runnable command) {
+        schedule(new Task(command, 0));
+    }
+
+    public synchronized void shutdown() {
+        shutdown = true;
+        tasks.clear();
+    }
+
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return Collections.emptyList();
+    }
+
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    public synchronized boolean isTerminated() {
+        return shutdown;
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return isTerminated();
+    }
+
+    private synchronized Task schedule(Task task) {
+        if (!shutdown) {
+            tasks.add(task);
+        }
+        return task;
+    }
+
+    private synchronized void cancel(Task task) {
+        tasks.remove(task);
+    }
+
+    private class Task implements ScheduledFuture<Object>, Runnable {
+        private final Runnable command;
+        private final long time;
+        // tasks with the same time are run in scheduling order
+        private final long order;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        private Task(Runnable command, long delay) {
+            this.command = command;
+            synchronized (MockScheduledExecutorService.this) {
+                time = now + Math.max(0, delay);
+                order = sequence++;
+            }
+        }
+
+        public void run() {
+            if (!cancelled) {
+                command.run();
+                done = true;
+            }
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        public int compareTo(Delayed o) {
+            Task task = (Task) o;
+            if (time != task.time) {
+                return time < task.time ? -1 : 1;
+            }
+            return order < task.order ? -1 : (order == task.order ? 0 : 1);
+        }
+
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (done) {
+                return false;
+            }
+            cancelled = true;
+            MockScheduledExecutorService.this.cancel(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isDone() {
+            return done || cancelled;
+        }
+
+        public Object get() {
+            return null;
+        }
+
+        public Object get(long timeout, TimeUnit unit) {
+            return null;
+        }
+    }
+}